@@ -0,0 +1,91 @@
+package Control;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import Model.ABSearch;
+import Model.RadikalChessAction;
+import Model.RadikalChessGame;
+import Model.RadikalChessPlayer;
+import Model.RadikalChessState;
+import Model.RadikalChessUtil;
+import View.RadikalChessConsole;
+
+/**
+ * Trabajador de RadikalChessExperiment. Cada trabajador tiene su propio
+ * juego y su propia búsqueda para cada jugador, con los pesos fijados al
+ * crearlo, así que no comparte nada mutable con los demás salvo el
+ * contador de tableros pendientes.
+ *
+ * @author Quique
+ */
+class ExperimentWorker implements Callable<int[]> {
+
+	private final List<RadikalChessState> boards;
+	private final AtomicInteger next;
+	private final RadikalChessConsole console;
+	private final RadikalChessGame[] game = new RadikalChessGame[2];
+	private final ABSearch[] search = new ABSearch[2];
+
+	/**
+	 * @param boards Tableros de partida (no se modifican).
+	 * @param next Índice del siguiente tablero por jugar, compartido.
+	 * @param white Pesos de las blancas.
+	 * @param black Pesos de las negras.
+	 * @param time Tiempo por movimiento en segundos.
+	 */
+	ExperimentWorker(List<RadikalChessState> boards, AtomicInteger next, RadikalChessConsole console,
+			double[] white, double[] black, int time) {
+		this.boards = boards;
+		this.next = next;
+		this.console = console;
+
+		game[RadikalChessPlayer.WHITE.ordinal()] = new RadikalChessGame(white);
+		game[RadikalChessPlayer.BLACK.ordinal()] = new RadikalChessGame(black);
+
+		for (int i = 0; i < game.length; i++) {
+			search[i] = new ABSearch(game[i], -900., 900., time);
+		}
+	}
+
+	/**
+	 * Juega tableros hasta que no quede ninguno.
+	 *
+	 * @return Partidas ganadas, [ordinal del jugador].
+	 */
+	@Override
+	public int[] call() {
+		int[] wins = new int[2];
+		int i;
+
+		while ((i = next.getAndIncrement()) < boards.size()) {
+			console.out("Simulating board " + (i + 1) + "/" + boards.size());
+			wins[play(boards.get(i)).ordinal()]++;
+		}
+
+		return wins;
+	}
+
+	/**
+	 * @return Ganador de la partida desde el tablero dado.
+	 */
+	private RadikalChessPlayer play(RadikalChessState current) {
+		// Cada partida empieza con las tablas vacías, como si la jugase un
+		// trabajador recién creado, sin importar cuál le haya tocado.
+		for (ABSearch s : search) {
+			s.clearTable();
+		}
+
+		while (!game[0].isTerminal(current)) {
+			int player = current.getPlayer().ordinal();
+			RadikalChessAction action = search[player].makeDecision(current);
+
+			if (action == null) break;
+
+			current = game[player].getResult(current, action);
+		}
+
+		return RadikalChessUtil.otherPlayer(current.getPlayer());
+	}
+}
@@ -0,0 +1,298 @@
+package Control;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import Model.ABSearch;
+import Model.RadikalChessAction;
+import Model.RadikalChessGame;
+import Model.RadikalChessState;
+import Model.RadikalChessUndo;
+import Model.RadikalChessUtil;
+
+/**
+ * Banco de pruebas de rendimiento del motor: generación de movimientos,
+ * aplicación de acciones, estados terminales, heurísticas y búsquedas de
+ * profundidad fija, sobre las posiciones de un fichero (notación de
+ * RadikalChessUtil.toText, una por línea; '#' inicia un comentario).
+ *
+ * Cada prueba se calienta antes de medir y se repite en varias rondas; se
+ * informa del tiempo y de la memoria reservada por operación (esta última
+ * solo si la JVM permite medirla por hilo). Las pruebas que usan los
+ * mapas de alcance del estado (heuristicTwo, heuristicFour y evaluate) los
+ * descartan en cada llamada, para que se mida su cálculo y no la caché.
+ *
+ * Uso: RadikalChessBenchmark [posiciones] [profundidad] [segundos por ronda]
+ *
+ * @author Quique
+ */
+public class RadikalChessBenchmark {
+
+	private static final String DEFAULT_POSITIONS = "positions.txt";
+	private static final int DEFAULT_DEPTH = 5;
+	private static final double DEFAULT_SECONDS = 1.;
+	private static final int WARMUP_ROUNDS = 2;
+	private static final int MEASURE_ROUNDS = 5;
+
+	private final RadikalChessGame game = new RadikalChessGame();
+	private final ABSearch search;
+	private final List<RadikalChessState> positions;
+	private final List<List<RadikalChessAction>> actions = new ArrayList<>();
+	private final int[] buffer = new int[RadikalChessGame.MAX_MOVES];
+	private final RadikalChessUndo undo = new RadikalChessUndo();
+	private final long roundTime;
+	private final com.sun.management.ThreadMXBean threadBean;
+
+	/**
+	 * Resultado acumulado de las operaciones, para que el compilador no
+	 * pueda descartar su trabajo.
+	 */
+	private double sink;
+
+	/**
+	 * Operación medida sobre una posición.
+	 */
+	private static abstract class Operation {
+
+		final String name;
+
+		Operation(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * @param index Posición sobre la que operar.
+		 * @return Número de operaciones realizadas.
+		 */
+		abstract int run(int index);
+	}
+
+	public static void main(String[] args) throws IOException {
+		String file = (args.length > 0) ? args[0] : DEFAULT_POSITIONS;
+		int depth = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_DEPTH;
+		double seconds = (args.length > 2) ? Double.parseDouble(args[2]) : DEFAULT_SECONDS;
+
+		new RadikalChessBenchmark(loadPositions(file), depth, seconds).run();
+	}
+
+	/**
+	 * @return Posiciones del fichero, en el orden en que aparecen.
+	 */
+	public static List<RadikalChessState> loadPositions(String filename) throws IOException {
+		List<RadikalChessState> positions = new ArrayList<>();
+
+		try (BufferedReader in = new BufferedReader(new FileReader(filename))) {
+			String line;
+
+			while ((line = in.readLine()) != null) {
+				int comment = line.indexOf('#');
+
+				if (comment >= 0) line = line.substring(0, comment);
+				if (!line.trim().isEmpty()) positions.add(RadikalChessUtil.fromText(line));
+			}
+		}
+
+		return positions;
+	}
+
+	public RadikalChessBenchmark(List<RadikalChessState> positions, int depth, double seconds) {
+		this.positions = positions;
+		this.roundTime = (long) (seconds * 1e9);
+
+		for (RadikalChessState state : positions) {
+			actions.add(game.getActions(state));
+		}
+
+		// Tiempo holgado: la búsqueda termina por profundidad.
+		search = new ABSearch(game, -900., 900., 3600);
+		search.setDepthLimit(depth);
+
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		if (bean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+			threadBean = (com.sun.management.ThreadMXBean) bean;
+			threadBean.setThreadAllocatedMemoryEnabled(true);
+		} else {
+			threadBean = null;
+		}
+	}
+
+	/**
+	 * Ejecuta todas las pruebas e imprime una línea por prueba.
+	 */
+	public void run() {
+		System.out.println(positions.size() + " positions, search depth " + search.getDepthLimit() + "\n");
+		System.out.printf("%-16s %14s %14s %12s%n", "Benchmark", "ns/op", "ops/s", "B/op");
+
+		for (Operation operation : operations()) {
+			measure(operation);
+		}
+	}
+
+	/**
+	 * @return Las pruebas, de la más barata a la más cara.
+	 */
+	private List<Operation> operations() {
+		List<Operation> operations = new ArrayList<>();
+
+		operations.add(new Operation("getMoves") {
+			@Override
+			int run(int index) {
+				sink += game.getMoves(positions.get(index), buffer);
+				return 1;
+			}
+		});
+		operations.add(new Operation("getActions") {
+			@Override
+			int run(int index) {
+				sink += game.getActions(positions.get(index)).size();
+				return 1;
+			}
+		});
+		operations.add(new Operation("makeUnmake") {
+			@Override
+			int run(int index) {
+				RadikalChessState state = positions.get(index);
+				int count = game.getMoves(state, buffer);
+
+				for (int i = 0; i < count; i++) {
+					state.makeMove(buffer[i], undo);
+					state.unmakeMove(buffer[i], undo);
+				}
+
+				return Math.max(count, 1);
+			}
+		});
+		operations.add(new Operation("getResult") {
+			@Override
+			int run(int index) {
+				RadikalChessState state = positions.get(index);
+
+				for (RadikalChessAction action : actions.get(index)) {
+					sink += game.getResult(state, action).getHash();
+				}
+
+				return Math.max(actions.get(index).size(), 1);
+			}
+		});
+		operations.add(new Operation("isTerminal") {
+			@Override
+			int run(int index) {
+				sink += game.isTerminal(positions.get(index)) ? 1 : 0;
+				return 1;
+			}
+		});
+		operations.add(new Operation("basicLogic") {
+			@Override
+			int run(int index) {
+				sink += positions.get(index).basicLogic();
+				return 1;
+			}
+		});
+		operations.add(new Operation("heuristicOne") {
+			@Override
+			int run(int index) {
+				sink += positions.get(index).heuristicOne();
+				return 1;
+			}
+		});
+		operations.add(new Operation("heuristicTwo") {
+			@Override
+			int run(int index) {
+				RadikalChessState state = positions.get(index);
+
+				state.clearReach();
+				sink += state.heuristicTwo();
+				return 1;
+			}
+		});
+		operations.add(new Operation("heuristicThree") {
+			@Override
+			int run(int index) {
+				sink += positions.get(index).heuristicThree();
+				return 1;
+			}
+		});
+		operations.add(new Operation("heuristicFour") {
+			@Override
+			int run(int index) {
+				RadikalChessState state = positions.get(index);
+
+				state.clearReach();
+				sink += state.heuristicFour();
+				return 1;
+			}
+		});
+		operations.add(new Operation("evaluate") {
+			@Override
+			int run(int index) {
+				RadikalChessState state = positions.get(index);
+
+				state.clearReach();
+				sink += game.evaluate(state);
+				return 1;
+			}
+		});
+		operations.add(new Operation("search") {
+			@Override
+			int run(int index) {
+				search.clearTable();
+				RadikalChessAction action = search.makeDecision(positions.get(index));
+				sink += (action == null) ? 0 : action.encode();
+				return 1;
+			}
+		});
+
+		return operations;
+	}
+
+	/**
+	 * Calienta la prueba y la mide en varias rondas; cada ronda recorre
+	 * todas las posiciones tantas veces como quepan en el tiempo de ronda.
+	 * Se informa de la mejor ronda, la menos afectada por el recolector y
+	 * el compilador.
+	 */
+	private void measure(Operation operation) {
+		double bestTime = Double.POSITIVE_INFINITY;
+		double bestBytes = Double.POSITIVE_INFINITY;
+
+		for (int round = 0; round < WARMUP_ROUNDS + MEASURE_ROUNDS; round++) {
+			long operations = 0;
+			long bytes = allocatedBytes();
+			long start = System.nanoTime();
+			long elapsed;
+
+			do {
+				for (int i = 0; i < positions.size(); i++) {
+					operations += operation.run(i);
+				}
+
+				elapsed = System.nanoTime() - start;
+			} while (elapsed < roundTime);
+
+			bytes = allocatedBytes() - bytes;
+
+			if (round >= WARMUP_ROUNDS) {
+				bestTime = Math.min(bestTime, (double) elapsed / operations);
+				bestBytes = Math.min(bestBytes, (double) bytes / operations);
+			}
+		}
+
+		System.out.printf("%-16s %14.1f %14.0f %12s%n", operation.name, bestTime, 1e9 / bestTime,
+				(threadBean == null) ? "n/a" : String.format("%.1f", bestBytes));
+
+		if (Double.isNaN(sink)) System.out.println();
+	}
+
+	/**
+	 * @return Memoria reservada hasta ahora por el hilo actual, 0 si no se puede medir.
+	 */
+	private long allocatedBytes() {
+		return (threadBean == null) ? 0 : threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
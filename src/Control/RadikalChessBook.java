@@ -0,0 +1,53 @@
+package Control;
+
+import java.io.IOException;
+
+import Model.ABSearch;
+import Model.OpeningBook;
+import Model.OpeningBookBuilder;
+import Model.RadikalChessGame;
+import Model.TimeManager;
+
+/**
+ * Construcción del libro de aperturas desde la línea de órdenes.
+ * 
+ * Uso: RadikalChessBook [medios movimientos] [segundos por posición] [fichero] [pesos]
+ * 
+ * Por defecto, 6 medios movimientos a 10 segundos por posición en
+ * OpeningBook.DEFAULT_FILE, que es donde los controladores lo buscan.
+ * Los pesos de la heurística van separados por comas (p. ej. "1,1,1,1,1",
+ * que es lo que se usa si no se dan); el libro solo se usa en partidas
+ * con esos mismos pesos.
+ * 
+ * @author Quique
+ */
+public class RadikalChessBook {
+
+	public static void main(String[] args) throws IOException {
+		int plies = (args.length > 0) ? Integer.parseInt(args[0]) : 6;
+		int time = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+		String filename = (args.length > 2) ? args[2] : OpeningBook.DEFAULT_FILE;
+
+		RadikalChessGame game = (args.length > 3) ? new RadikalChessGame(parseWeights(args[3])) : new RadikalChessGame();
+		ABSearch search = new ABSearch(game, -900., 900., time);
+		search.setThreads(Runtime.getRuntime().availableProcessors());
+		search.setTimeManager(TimeManager.fixed(time * 1000L));
+
+		new OpeningBookBuilder(game, search, System.out).build(plies, filename);
+	}
+
+	/**
+	 * @return Los pesos de una lista separada por comas.
+	 */
+	private static double[] parseWeights(String text) {
+		String[] parts = text.split(",");
+		double[] weights = new double[parts.length];
+
+		for (int i = 0; i < parts.length; i++) {
+			weights[i] = Double.parseDouble(parts[i].trim());
+		}
+
+		return weights;
+	}
+
+}
@@ -1,10 +1,13 @@
 package Control;
 
 import Model.ABSearch;
+import Model.OpeningBook;
 import Model.RadikalChessAction;
 import Model.RadikalChessGame;
 import Model.RadikalChessPlayer;
 import Model.RadikalChessState;
+import Model.Tablebase;
+import Model.TimeManager;
 import View.RadikalChessConsole;
 
 /**
@@ -16,25 +19,45 @@ public class RadikalChessCC {
 
 	private static RadikalChessCC instance;
 	private RadikalChessConsole console;
-	private RadikalChessGame game;
-	private double[] hWhite;
-	private double[] hBlack;
-	private ABSearch search;
+	private final RadikalChessGame[] game = new RadikalChessGame[2];
+	private final ABSearch[] search = new ABSearch[2];
+
+	/**
+	 * Reloj de cada jugador: tiempo de partida e incremento por movimiento,
+	 * en milisegundos. El tiempo por movimiento queda como tope.
+	 */
+	private static final long CLOCK = 2 * 60 * 1000;
+	private static final long INCREMENT = 2 * 1000;
+	private static final long MOVE_TIME = 10 * 1000;
 
 	/**
 	 * Constructor del controlador. Inicia el juego y configura los
 	 * parámetros necesarios para la partida computador-computador.
 	 * El algoritmo de búsqueda ofrece las mismas condiciones a 
-	 * ambos adversarios.
+	 * ambos adversarios, cada uno con su reloj. Cada jugador tiene su
+	 * juego (con sus pesos) y su búsqueda, de modo que su tabla de
+	 * transposiciones se conserva de un movimiento al siguiente.
 	 */
 	private RadikalChessCC() {
-		game = new RadikalChessGame();
-		search = new ABSearch(game, -900., 900., 10);
+		Tablebase tablebase = Tablebase.open(Tablebase.DEFAULT_DIRECTORY);
+		OpeningBook book = OpeningBook.open(OpeningBook.DEFAULT_FILE);
+		RadikalChessGame rules = new RadikalChessGame();
 
-		console = new RadikalChessConsole(game, game.getInitialState());
+		console = new RadikalChessConsole(rules, rules.getInitialState());
 
-		hWhite = console.configHeuristics(RadikalChessPlayer.WHITE);
-		hBlack = console.configHeuristics(RadikalChessPlayer.BLACK);
+		for (RadikalChessPlayer player : new RadikalChessPlayer[]{RadikalChessPlayer.WHITE, RadikalChessPlayer.BLACK}) {
+			int i = player.ordinal();
+			TimeManager clock = new TimeManager(MOVE_TIME);
+
+			clock.setClock(CLOCK, INCREMENT);
+			game[i] = new RadikalChessGame(console.configHeuristics(player));
+			search[i] = new ABSearch(game[i], -900., 900., 10);
+			search[i].setTimeManager(clock);
+			search[i].setThreads(Runtime.getRuntime().availableProcessors());
+			search[i].setTablebase(tablebase);
+			search[i].setBook(book);
+			search[i].setStatisticsFile(System.getProperty(ABSearch.STATISTICS_PROPERTY));
+		}
 
 		mainLoop();
 	}
@@ -55,15 +78,8 @@ public class RadikalChessCC {
 		boolean exit = false;
 		RadikalChessState current = console.getCurrent();
 
-		while (!game.isTerminal(current) && !exit) {
+		while (!game[0].isTerminal(current) && !exit) {
 			console.out("\n" + current + "\n\n" + current.getPlayer() + "'s thinking...\n");
-			
-			if (current.getPlayer() == RadikalChessPlayer.BLACK) {
-				game.setHeuristicsw(hBlack);
-			} else {
-				game.setHeuristicsw(hWhite);
-			}
-			
 			proposeMove();
 			current = console.getCurrent();
 		}
@@ -77,13 +93,14 @@ public class RadikalChessCC {
 	 */
 	private void proposeMove() {
 		RadikalChessState current = console.getCurrent();
-		RadikalChessAction action = search.makeDecision(current);
-		console.printMetrics(search);
+		int player = current.getPlayer().ordinal();
+		RadikalChessAction action = search[player].makeDecision(current);
+		console.printMetrics(search[player]);
 		
 		if (action == null) {
 			return;
 		}
 
-		console.updateCurrent(game.getResult(current, action));
+		console.updateCurrent(game[player].getResult(current, action));
 	}
 }
\ No newline at end of file
@@ -1,9 +1,13 @@
 package Control;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import Model.ABSearch;
-import Model.RadikalChessAction;
 import Model.RadikalChessGame;
 import Model.RadikalChessPlayer;
 import Model.RadikalChessState;
@@ -16,7 +20,11 @@ public class RadikalChessExperiment {
 	private RadikalChessGame game = new RadikalChessGame();
 	private RadikalChessState current = new RadikalChessState();
 	private RadikalChessConsole console;
-	private ABSearch search;
+	private ExecutorService pool;
+	private int workers = Runtime.getRuntime().availableProcessors();
+	// 3s -> depth ~7
+	// 1s -> depth ~6
+	private int time = 3;
 
 	private double[] testOne;
 	private double[] testTwo;
@@ -26,13 +34,15 @@ public class RadikalChessExperiment {
 	private RadikalChessExperiment() {
 		testBoards = new ArrayList<>();
 		console = new RadikalChessConsole(game, current);
-		// 3s -> depth ~7
-		// 1s -> depth ~6
-		search = new ABSearch(game, -900., 900., 3);
+		pool = Executors.newFixedThreadPool(workers);
 
-		console.out("\nRadikalChessExperiment initialized");
+		console.out("\nRadikalChessExperiment initialized (" + workers + " workers)");
 
-		experiment();
+		try {
+			experiment();
+		} finally {
+			pool.shutdown();
+		}
 	}
 
 	/**
@@ -52,54 +62,19 @@ public class RadikalChessExperiment {
 	private void countEfficiency() {
 		testOne = new double[]{1., 1., 1., 1., 1.}; // Full
 		testTwo = new double[]{1., 1., 1., 0., 1.}; // Without count
-		int fwcount = 0, fwocount = 0, swcount = 0, swocount = 0;
-
-		for (int i = 0; i < experimentsCount; i++) {
-			current = testBoards.get(i);
-			console.out("Simulating board " + (i + 1) + "/" + experimentsCount);
-
-			while (!game.isTerminal(current)) {
-				if (current.getPlayer() == RadikalChessPlayer.BLACK) {
-					game.setHeuristicsw(testOne); // full
-				} else {
-					game.setHeuristicsw(testTwo);
-				}
-
-				proposeMove();
-			}
 
-			if (RadikalChessUtil.otherPlayer(current.getPlayer()) == RadikalChessPlayer.BLACK) {
-				fwcount++;
-			} else {
-				fwocount++;
-			}
-		}
+		int[] first = playAll(testTwo, testOne); // Full plays black
+		int fwcount = first[RadikalChessPlayer.BLACK.ordinal()];
+		int fwocount = first[RadikalChessPlayer.WHITE.ordinal()];
 
 		console.out("\nStatistics playing as the first player: ");
 		console.out("\tWith count heuristic: " + fwcount + "/" + experimentsCount);
 		console.out("\tWithout count heuristic: " + fwocount + "/" + experimentsCount);
 		console.out("");
 
-		for (int i = 0; i < experimentsCount; i++) {
-			current = testBoards.get(i);
-			console.out("Simulating board " + (i + 1) + "/" + experimentsCount);
-
-			while (!game.isTerminal(current)) {
-				if (current.getPlayer() == RadikalChessPlayer.WHITE) {
-					game.setHeuristicsw(testOne); // Full
-				} else {
-					game.setHeuristicsw(testTwo);
-				}
-
-				proposeMove();
-			}
-
-			if (RadikalChessUtil.otherPlayer(current.getPlayer()) == RadikalChessPlayer.WHITE) {
-				swcount++;
-			} else {
-				swocount++;
-			}
-		}
+		int[] second = playAll(testOne, testTwo); // Full plays white
+		int swcount = second[RadikalChessPlayer.WHITE.ordinal()];
+		int swocount = second[RadikalChessPlayer.BLACK.ordinal()];
 
 		console.out("\nStatistics playing as the second player: ");
 		console.out("\tWith count heuristic: " + swcount + "/" + experimentsCount);
@@ -116,55 +91,19 @@ public class RadikalChessExperiment {
 	private void weightCount() {
 		testOne = new double[]{1., 1., 1., 0., 1.}; // Weight
 		testTwo = new double[]{1., 0., 1., 1., 1.}; // Count
-		
-		int fweight = 0, fcount = 0, sweight = 0, scount = 0;
 
-		for (int i = 0; i < experimentsCount; i++) {
-			current = testBoards.get(i);
-			console.out("Simulating board " + (i + 1) + "/" + experimentsCount);
-
-			while (!game.isTerminal(current)) {
-				if (current.getPlayer() == RadikalChessPlayer.BLACK) {
-					game.setHeuristicsw(testOne); // Weight
-				} else {
-					game.setHeuristicsw(testTwo);
-				}
-
-				proposeMove();
-			}
-
-			if (RadikalChessUtil.otherPlayer(current.getPlayer()) == RadikalChessPlayer.BLACK) {
-				fweight++;
-			} else {
-				fcount++;
-			}
-		}
+		int[] first = playAll(testTwo, testOne); // Weight plays black
+		int fweight = first[RadikalChessPlayer.BLACK.ordinal()];
+		int fcount = first[RadikalChessPlayer.WHITE.ordinal()];
 
 		console.out("\nStatistics playing as the first player: ");
 		console.out("\tWeight heuristic: " + fweight + "/" + experimentsCount);
 		console.out("\tCount heuristic: " + fcount + "/" + experimentsCount);
 		console.out("");
 
-		for (int i = 0; i < experimentsCount; i++) {
-			current = testBoards.get(i);
-			console.out("Simulating board " + (i + 1) + "/" + experimentsCount);
-
-			while (!game.isTerminal(current)) {
-				if (current.getPlayer() == RadikalChessPlayer.WHITE) {
-					game.setHeuristicsw(testOne); // Weight
-				} else {
-					game.setHeuristicsw(testTwo);
-				}
-
-				proposeMove();
-			}
-
-			if (RadikalChessUtil.otherPlayer(current.getPlayer()) == RadikalChessPlayer.WHITE) {
-				sweight++;
-			} else {
-				scount++;
-			}
-		}
+		int[] second = playAll(testOne, testTwo); // Weight plays white
+		int sweight = second[RadikalChessPlayer.WHITE.ordinal()];
+		int scount = second[RadikalChessPlayer.BLACK.ordinal()];
 
 		console.out("\nStatistics playing as the second player: ");
 		console.out("\tWeight heuristic: " + sweight + "/" + experimentsCount);
@@ -175,6 +114,36 @@ public class RadikalChessExperiment {
 		console.out("\tCount heuristic: " + (fcount + scount) + "/" + experimentsCount*2);
 	}
 
+	/**
+	 * Juega todos los tableros de prueba repartidos entre los trabajadores.
+	 * Cada partida es independiente, así que el recuento no depende del
+	 * orden en que terminen.
+	 * 
+	 * @param white Pesos de las blancas.
+	 * @param black Pesos de las negras.
+	 * @return Partidas ganadas, [ordinal del jugador].
+	 */
+	private int[] playAll(double[] white, double[] black) {
+		AtomicInteger next = new AtomicInteger();
+		List<ExperimentWorker> tasks = new ArrayList<>();
+		int[] wins = new int[2];
+
+		for (int i = 0; i < workers; i++) {
+			tasks.add(new ExperimentWorker(testBoards, next, console, white, black, time));
+		}
+
+		try {
+			for (Future<int[]> result : pool.invokeAll(tasks)) {
+				wins[0] += result.get()[0];
+				wins[1] += result.get()[1];
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new IllegalStateException("Experiment interrupted", e);
+		}
+
+		return wins;
+	}
+
 	/**
 	 * Con la ayuda de las utilidades genera diferentes tableros
 	 */
@@ -190,20 +159,6 @@ public class RadikalChessExperiment {
 		console.out("\nRandom games generated");		
 	}
 
-	/**
-	 * Método que propone un movimiento dado el estado actual.
-	 * Informa de la operación de búsqueda realizada.
-	 */
-	private void proposeMove() {
-		RadikalChessAction action = search.makeDecision(current);
-
-		if (action == null) {
-			return;
-		}
-
-		current = game.getResult(current, action);
-	}
-
 	public static void start() {
 		if (instance == null) {
 			instance = new RadikalChessExperiment();
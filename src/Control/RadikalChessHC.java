@@ -1,10 +1,12 @@
 package Control;
 
 import Model.ABSearch;
+import Model.OpeningBook;
 import Model.RadikalChessAction;
 import Model.RadikalChessGame;
 import Model.RadikalChessPlayer;
 import Model.RadikalChessState;
+import Model.Tablebase;
 import View.RadikalChessConsole;
 
 /**
@@ -20,6 +22,13 @@ public class RadikalChessHC {
 	private RadikalChessPlayer human;
 	private ABSearch search;
 
+	/**
+	 * Reloj de la máquina: tiempo de partida e incremento por movimiento,
+	 * en milisegundos. El tiempo por movimiento queda como tope.
+	 */
+	private static final long CLOCK = 5 * 60 * 1000;
+	private static final long INCREMENT = 5 * 1000;
+
 	/**
 	 * Constructor del controlador. Inicia el juego y configura los
 	 * parámetros necesarios para la partida.
@@ -27,6 +36,11 @@ public class RadikalChessHC {
 	private RadikalChessHC() {
 		game = new RadikalChessGame();
 		search = new ABSearch(game, -900., 900., 15);
+		search.getTimeManager().setClock(CLOCK, INCREMENT);
+		search.setThreads(Runtime.getRuntime().availableProcessors());
+		search.setTablebase(Tablebase.open(Tablebase.DEFAULT_DIRECTORY));
+		search.setBook(OpeningBook.open(OpeningBook.DEFAULT_FILE));
+		search.setStatisticsFile(System.getProperty(ABSearch.STATISTICS_PROPERTY));
 
 		console = new RadikalChessConsole(game, game.getInitialState());
 
@@ -48,7 +62,8 @@ public class RadikalChessHC {
 
 	
 	/**
-	 * Bucle principal del controlador.
+	 * Bucle principal del controlador. Mientras el humano piensa la
+	 * búsqueda medita en segundo plano (véase ABSearch.ponder).
 	 */
 	private void mainLoop() {
 		boolean exit = false;
@@ -62,6 +77,7 @@ public class RadikalChessHC {
 				proposeMove();
 			} else {
 				console.out("\n" + current + "\n\n" + human + "'s turn to move: ");
+				search.ponder(current);
 
 				while (input && !exit)
 					switch (console.parse()) {
@@ -80,6 +96,7 @@ public class RadikalChessHC {
 			current = console.getCurrent();
 		}
 
+		search.stopPondering();
 		console.bye();
 	}
 
@@ -91,6 +108,9 @@ public class RadikalChessHC {
 	private void proposeMove() {
 		RadikalChessState current = console.getCurrent();
 		RadikalChessAction action = search.makeDecision(current);
+
+		if (search.isPonderHit()) console.out("Ponder hit.\n");
+
 		console.printMetrics(search);
 
 		if (action == null) {
@@ -0,0 +1,50 @@
+package Control;
+
+import Model.RadikalChessGame;
+import Model.RadikalChessState;
+import Model.RadikalChessUtil;
+import View.RadikalChessConsole;
+
+/**
+ * Perft desde la línea de órdenes, sin pasar por el menú.
+ * 
+ * Uso: RadikalChessPerft <profundidad> [-parallel] [-hash] [posición]
+ * 
+ * La posición va en la notación de RadikalChessUtil.toText; por defecto,
+ * el tablero inicial.
+ * 
+ * @author Quique
+ */
+public class RadikalChessPerft {
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println("Usage: RadikalChessPerft <depth> [-parallel] [-hash] [position]");
+			return;
+		}
+
+		boolean parallel = false, hashed = false;
+		StringBuilder position = new StringBuilder();
+
+		for (int i = 1; i < args.length; i++) {
+			switch (args[i]) {
+				case "-parallel":
+					parallel = true;
+					break;
+				case "-hash":
+					hashed = true;
+					break;
+				default:
+					position.append(args[i]).append(' ');
+			}
+		}
+
+		RadikalChessState state = (position.length() == 0) ? new RadikalChessState() :
+			RadikalChessUtil.fromText(position.toString());
+		RadikalChessGame game = new RadikalChessGame(state);
+
+		System.out.println(RadikalChessUtil.toText(state));
+		new RadikalChessConsole(game, state).perft(Integer.parseInt(args[0]), parallel, hashed);
+	}
+
+}
@@ -0,0 +1,28 @@
+package Control;
+
+import java.io.IOException;
+
+import Model.RadikalChessGame;
+import Model.Tablebase;
+import Model.TablebaseGenerator;
+
+/**
+ * Generación de las tablas de finales desde la línea de órdenes.
+ * 
+ * Uso: RadikalChessTablebase [fichas] [directorio]
+ * 
+ * Por defecto, hasta 4 fichas en el directorio de Tablebase.DEFAULT_DIRECTORY,
+ * que es donde los controladores las buscan.
+ * 
+ * @author Quique
+ */
+public class RadikalChessTablebase {
+
+	public static void main(String[] args) throws IOException {
+		int pieces = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+		String directory = (args.length > 1) ? args[1] : Tablebase.DEFAULT_DIRECTORY;
+
+		new TablebaseGenerator(new RadikalChessGame(), System.out).generate(pieces, directory);
+	}
+
+}
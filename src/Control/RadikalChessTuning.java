@@ -0,0 +1,218 @@
+package Control;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import Model.RadikalChessAction;
+import Model.RadikalChessGame;
+import Model.RadikalChessState;
+import View.RadikalChessConsole;
+
+/**
+ * Ajuste automático de los pesos de las heurísticas mediante SPSA.
+ *
+ * En cada iteración se perturban a la vez todos los pesos ajustables en
+ * una dirección aleatoria (+c o -c en cada uno), se enfrentan los dos
+ * vectores resultantes en partidas cortas de profundidad fija y el
+ * resultado del enfrentamiento da una estimación del gradiente con la que
+ * se mueve el vector. Las partidas se reparten entre un trabajador por
+ * procesador (TuningWorker).
+ *
+ * El peso de la lógica básica (victoria/derrota) no se ajusta: fija la
+ * escala del resto.
+ *
+ * Cada cierto número de iteraciones el vector actual juega contra el
+ * inicial; el mejor de esos enfrentamientos es el que se da como
+ * resultado. La curva de aprendizaje y el mejor vector se escriben en
+ * un fichero a medida que avanzan.
+ *
+ * @author Quique
+ */
+public class RadikalChessTuning {
+
+	private static RadikalChessTuning instance;
+
+	private static final String OUTPUT = "tuning.txt";
+	private static final int[] TUNED = {1, 2, 3, 4};
+
+	private int iterations = 200;
+	private int openingsPerIteration = 16;
+	private int evaluateEvery = 20;
+	private int depth = 3;
+	private int maxPlies = 120;
+	private int tableSize = 4;
+	private double a = 0.5;
+	private double c = 0.25;
+	private double stability = iterations / 10.;
+	private long seed = 0x52616469L;
+
+	private RadikalChessGame game = new RadikalChessGame();
+	private RadikalChessConsole console = new RadikalChessConsole(game, new RadikalChessState());
+	private Random random = new Random(seed);
+	private ExecutorService pool;
+	private List<TuningWorker> workers = new ArrayList<>();
+
+	private double[] initial = {1., 1., 1., 1., 1.};
+	private double[] best = initial.clone();
+	private double bestScore = 0.;
+
+	private RadikalChessTuning() {
+		int threads = Runtime.getRuntime().availableProcessors();
+		pool = Executors.newFixedThreadPool(threads);
+
+		for (int i = 0; i < threads; i++) {
+			workers.add(new TuningWorker(depth, tableSize, maxPlies));
+		}
+
+		console.out("\nRadikalChessTuning initialized (" + threads + " workers, " +
+				iterations * openingsPerIteration * 2 + " games)");
+
+		try (PrintWriter out = new PrintWriter(new FileWriter(OUTPUT))) {
+			tune(out);
+		} catch (IOException e) {
+			console.out("Couldn't write to " + OUTPUT + ".");
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Bucle de SPSA.
+	 *
+	 * @param out Fichero de la curva de aprendizaje.
+	 */
+	private void tune(PrintWriter out) {
+		double[] theta = initial.clone();
+
+		out.println("# iteration score(plus vs minus) w0 w1 w2 w3 w4");
+
+		for (int k = 0; k < iterations; k++) {
+			double ak = a / Math.pow(k + 1 + stability, 0.602);
+			double ck = c / Math.pow(k + 1, 0.101);
+			double[] delta = new double[theta.length];
+			double[] plus = theta.clone();
+			double[] minus = theta.clone();
+
+			for (int i : TUNED) {
+				delta[i] = random.nextBoolean() ? 1. : -1.;
+				plus[i] = Math.max(0., theta[i] + ck * delta[i]);
+				minus[i] = Math.max(0., theta[i] - ck * delta[i]);
+			}
+
+			double score = match(plus, minus);
+
+			for (int i : TUNED) {
+				theta[i] = Math.max(0., theta[i] + ak * score / (2 * ck * delta[i]));
+			}
+
+			out.println(k + 1 + " " + format(score) + " " + format(theta));
+			out.flush();
+			console.out("Iteration " + (k + 1) + "/" + iterations + ": " + Arrays.toString(round(theta)));
+
+			if ((k + 1) % evaluateEvery == 0) {
+				double versus = match(theta, initial);
+
+				out.println("# iteration " + (k + 1) + " vs initial: " + format(versus));
+				console.out("\tVersus initial weights: " + format(versus));
+
+				if (versus > bestScore) {
+					bestScore = versus;
+					best = theta.clone();
+				}
+			}
+		}
+
+		out.println("# best (" + format(bestScore) + " vs initial): " + format(best));
+		console.out("\nBest weights: " + Arrays.toString(round(best)) + " (written to " + OUTPUT + ")");
+	}
+
+	/**
+	 * Enfrenta dos vectores de pesos desde aperturas aleatorias nuevas,
+	 * dos partidas por apertura (una con cada color).
+	 *
+	 * @return Resultado medio del primer vector, entre -1 y 1.
+	 */
+	private double match(double[] first, double[] second) {
+		List<RadikalChessState> openings = openings();
+		AtomicInteger next = new AtomicInteger();
+		int score = 0;
+
+		for (TuningWorker worker : workers) {
+			worker.setMatch(first, second, openings, next);
+		}
+
+		try {
+			for (Future<Integer> result : pool.invokeAll(workers)) {
+				score += result.get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new IllegalStateException("Tuning interrupted", e);
+		}
+
+		return score / (2. * openings.size());
+	}
+
+	/**
+	 * @return Aperturas de entre 2 y 8 medios movimientos aleatorios, no terminales.
+	 */
+	private List<RadikalChessState> openings() {
+		List<RadikalChessState> openings = new ArrayList<>();
+
+		while (openings.size() < openingsPerIteration) {
+			RadikalChessState state = new RadikalChessState();
+			int plies = 2 + random.nextInt(7);
+
+			for (int i = 0; i < plies && !game.isTerminal(state); i++) {
+				List<RadikalChessAction> actions = game.getActions(state);
+				state = game.getResult(state, actions.get(random.nextInt(actions.size())));
+			}
+
+			if (!game.isTerminal(state)) openings.add(state);
+		}
+
+		return openings;
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.4f", value);
+	}
+
+	private static String format(double[] values) {
+		StringBuilder s = new StringBuilder();
+
+		for (double value : values) {
+			if (s.length() > 0) s.append(' ');
+			s.append(format(value));
+		}
+
+		return s.toString();
+	}
+
+	private static double[] round(double[] values) {
+		double[] rounded = new double[values.length];
+
+		for (int i = 0; i < values.length; i++) {
+			rounded[i] = Math.round(values[i] * 1000) / 1000.;
+		}
+
+		return rounded;
+	}
+
+	public static void start() {
+		if (instance == null) {
+			instance = new RadikalChessTuning();
+		}
+	}
+
+}
@@ -0,0 +1,99 @@
+package Control;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import Model.ABSearch;
+import Model.RadikalChessAction;
+import Model.RadikalChessGame;
+import Model.RadikalChessState;
+
+/**
+ * Trabajador de RadikalChessTuning. Juega parejas de partidas cortas de
+ * profundidad fija entre dos vectores de pesos, una con cada color, desde
+ * las aperturas pendientes de la iteración.
+ *
+ * Los juegos y búsquedas son del trabajador y se reutilizan entre
+ * iteraciones; solo cambian los pesos, que cada juego copia.
+ *
+ * @author Quique
+ */
+class TuningWorker implements Callable<Integer> {
+
+	private final RadikalChessGame[] game = {new RadikalChessGame(), new RadikalChessGame()};
+	private final ABSearch[] search = new ABSearch[2];
+	private final int maxPlies;
+
+	private List<RadikalChessState> openings;
+	private AtomicInteger next;
+
+	/**
+	 * @param depth Profundidad de las búsquedas.
+	 * @param tableSize Tamaño de la tabla de transposiciones de cada búsqueda, en MB.
+	 * @param maxPlies Medios movimientos tras los que la partida es tablas.
+	 */
+	TuningWorker(int depth, int tableSize, int maxPlies) {
+		this.maxPlies = maxPlies;
+
+		for (int i = 0; i < game.length; i++) {
+			// Tiempo holgado: la búsqueda termina por profundidad.
+			search[i] = new ABSearch(game[i], -900., 900., 3600, tableSize);
+			search[i].setDepthLimit(depth);
+		}
+	}
+
+	/**
+	 * Prepara la siguiente ronda de partidas.
+	 *
+	 * @param first Pesos del primer jugador.
+	 * @param second Pesos del segundo jugador.
+	 * @param openings Aperturas de la ronda (no se modifican).
+	 * @param next Índice de la siguiente apertura por jugar, compartido.
+	 */
+	void setMatch(double[] first, double[] second, List<RadikalChessState> openings, AtomicInteger next) {
+		game[0].setHeuristicsw(first);
+		game[1].setHeuristicsw(second);
+		this.openings = openings;
+		this.next = next;
+	}
+
+	/**
+	 * @return Suma de resultados del primer jugador (+1 victoria, -1 derrota, 0 tablas).
+	 */
+	@Override
+	public Integer call() {
+		int score = 0;
+		int i;
+
+		while ((i = next.getAndIncrement()) < openings.size()) {
+			score += play(openings.get(i), 0);
+			score += play(openings.get(i), 1);
+		}
+
+		return score;
+	}
+
+	/**
+	 * @param current Apertura.
+	 * @param mover Jugador (0 o 1) al que le toca mover en la apertura.
+	 * @return +1 si gana el jugador 0, -1 si gana el 1 y 0 si son tablas.
+	 */
+	private int play(RadikalChessState current, int mover) {
+		for (int ply = 0; ply < maxPlies; ply++) {
+			if (game[0].isTerminal(current)) {
+				// Pierde el jugador al que le toca mover.
+				return (mover == 0) ? -1 : 1;
+			}
+
+			RadikalChessAction action = search[mover].makeDecision(current);
+
+			if (action == null) break;
+
+			current = game[mover].getResult(current, action);
+			mover = 1 - mover;
+		}
+
+		return 0;
+	}
+}
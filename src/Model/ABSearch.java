@@ -1,22 +1,587 @@
 package Model;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
 import aima.core.search.adversarial.IterativeDeepeningAlphaBetaSearch;
+import aima.core.search.framework.Metrics;
 
 /**
  * Clase extendida de la búsqueda iterativa alpha-beta.
  * Se ha optimizado la propia clase superior (situación de una sola acción,
  * o ninguna).
- * 
+ *
+ * La recursión es propia (negamax, en SearchWorker) para poder consultar y
+ * guardar en la tabla de transposiciones en cada nodo y repartir la búsqueda
+ * entre varios hilos. Se mantienen el constructor, eval y las métricas de
+ * AIMA ("expandedNodes" y "maxDepth", sumadas entre hilos).
+ *
  * @author Quique
  */
-public class ABSearch extends 
+public class ABSearch extends
 		IterativeDeepeningAlphaBetaSearch<RadikalChessState, RadikalChessAction, RadikalChessPlayer>{
 
+	/**
+	 * Tamaño por defecto de la tabla de transposiciones, en MB.
+	 */
+	public static final int DEFAULT_TABLE_SIZE = 16;
+
+	/**
+	 * Profundidad máxima de la búsqueda (registros de deshacer reservados).
+	 */
+	public static final int MAX_PLY = 64;
+
+	/**
+	 * Nodos de la búsqueda de quietud por cada nodo del horizonte.
+	 */
+	public static final int DEFAULT_QUIESCENCE_NODES = 256;
+
+	/**
+	 * Cambio de movilidad que se supone a una captura en la poda delta.
+	 */
+	static final int DELTA_MOBILITY = 8;
+
+	/**
+	 * Semianchura por defecto de la ventana de aspiración, en unidades de
+	 * la evaluación, y fallos tras los que se abre del todo.
+	 */
+	public static final double DEFAULT_ASPIRATION_WINDOW = 10.;
+	static final int ASPIRATION_RETRIES = 4;
+
+	/**
+	 * Movimiento nulo: profundidad mínima, movimientos que debe tener el
+	 * jugador, margen sobre beta que debe dar la evaluación estática y
+	 * reducción por profundidad restante (véase SearchWorker.nullMove).
+	 */
+	static final int NULL_MOVE_DEPTH = 3;
+	static final int NULL_MOVE_MOBILITY = 6;
+	static final double NULL_MOVE_MARGIN = 4.;
+	static final int[] NULL_MOVE_REDUCTION = new int[MAX_PLY];
+
+	/**
+	 * Reducciones de movimientos tardíos (LMR): profundidad mínima, número
+	 * de movimientos que nunca se reducen y reducción por profundidad
+	 * restante y posición en la lista, que crece con el logaritmo de ambas
+	 * y deja siempre al menos un nivel.
+	 */
+	static final int LMR_DEPTH = 3;
+	static final int LMR_MOVES = 5;
+	static final int[][] LMR_REDUCTION = new int[MAX_PLY][RadikalChessGame.MAX_MOVES];
+
+	static {
+		for (int depth = 0; depth < MAX_PLY; depth++) {
+			NULL_MOVE_REDUCTION[depth] = (depth < NULL_MOVE_DEPTH) ? 0 : (depth <= 6) ? 2 : 3;
+
+			for (int i = 0; i < RadikalChessGame.MAX_MOVES; i++) {
+				if (depth < LMR_DEPTH || i < LMR_MOVES) continue;
+
+				int reduction = (int) (0.5 + Math.log(depth) * Math.log(i) / 4.);
+
+				LMR_REDUCTION[depth][i] = Math.max(0, Math.min(reduction, depth - 2));
+			}
+		}
+	}
+
+	/**
+	 * Propiedad del sistema con el fichero de estadísticas de las partidas
+	 * (véase setStatisticsFile), p. ej. -Dradikalchess.statistics=moves.csv
+	 */
+	public static final String STATISTICS_PROPERTY = "radikalchess.statistics";
+
+	private RadikalChessGame chessGame;
+	private TranspositionTable table;
+	private double[] tableWeights;
+	private SearchWorker[] workers = new SearchWorker[0];
+	private int threads = 1;
+	private int depthLimit = MAX_PLY - 1;
+	private int quiescenceNodes = DEFAULT_QUIESCENCE_NODES;
+	private double aspirationWindow = DEFAULT_ASPIRATION_WINDOW;
+	// Desactivadas por defecto: a igual tiempo no han ganado fuerza.
+	private boolean nullMove;
+	private boolean lateMoveReductions;
+	private Tablebase tablebase;
+	private OpeningBook book;
+	private volatile TimeManager timeManager;
+	private volatile long startTime;
+	private volatile boolean stop;
+	private volatile boolean pondering;
+	private Thread ponderThread;
+	private RadikalChessState ponderState;
+	private RadikalChessAction ponderResult;
+	private boolean ponderHit;
+	private int expandedNodes;
+	private int maxDepth;
+	private double bestScore;
+	private SearchStatistics statistics = new SearchStatistics();
+	private String statisticsFile;
+
 	public ABSearch(RadikalChessGame game, double utilMin, double utilMax, int time) {
+		this(game, utilMin, utilMax, time, DEFAULT_TABLE_SIZE);
+	}
+
+	/**
+	 * @param tableSize Tamaño de la tabla de transposiciones en MB.
+	 */
+	public ABSearch(RadikalChessGame game, double utilMin, double utilMax, int time, int tableSize) {
 		super(game, utilMin, utilMax, time);
+		this.chessGame = game;
+		this.timeManager = new TimeManager(time * 1000L);
+		this.table = new TranspositionTable(tableSize);
+	}
+
+	/**
+	 * Profundización iterativa sobre la búsqueda alpha-beta, en uno o varios
+	 * hilos (véase SearchWorker). Cada iteración empieza por el mejor
+	 * movimiento de la anterior; si se agota el tiempo a mitad de iteración
+	 * solo se acepta un movimiento ya buscado por completo.
+	 * 
+	 * Cada hilo trabaja sobre una copia del estado que se modifica con
+	 * makeMove/unmakeMove, sin crear un estado por nodo.
+	 */
+	@Override
+	public RadikalChessAction makeDecision(RadikalChessState state) {
+		long now = System.currentTimeMillis();
+		RadikalChessAction action;
+
+		ponderHit = false;
+
+		if (ponderThread != null && state.equals(ponderState)) {
+			// Acierto: la búsqueda sigue con el tiempo contado desde que
+			// empezó a meditar, así que si ya lo ha agotado responde ya.
+			// Al reloj solo se le descuenta lo que se espere desde ahora.
+			ponderHit = true;
+			timeManager.startMove();
+			pondering = false;
+			joinPonder();
+			action = ponderResult;
+		} else {
+			stopPondering();
+
+			startTime = now;
+			stop = false;
+			timeManager.startMove();
+			action = decide(state);
+		}
+
+		timeManager.endMove(System.currentTimeMillis() - now);
+		exportStatistics();
+
+		return action;
+	}
+
+	/**
+	 * Cuerpo de makeDecision, compartido con la meditación. El tiempo de
+	 * inicio y la orden de parar los prepara quien llama.
+	 */
+	private RadikalChessAction decide(RadikalChessState state) {
+		statistics.reset();
+
+		RadikalChessAction action = search(state);
+
+		statistics.finish(System.currentTimeMillis() - startTime, maxDepth, bestScore);
+
+		return action;
+	}
+
+	private RadikalChessAction search(RadikalChessState state) {
+		expandedNodes = 0;
+		maxDepth = 0;
+		bestScore = 0.;
+
+		List<RadikalChessAction> actions = chessGame.getActions(state);
+
+		if (actions.isEmpty()) return null;
+		if (actions.size() == 1) return actions.get(0);
+
+		if (book != null && book.isFor(chessGame.getHeuristicsw())) {
+			int move = book.probe(state.getHash());
+
+			for (RadikalChessAction action : actions) {
+				if (action.encode() == move) return action;
+			}
+		}
+
+		if (tablebase != null) {
+			int move = tablebase.bestMove(chessGame, state);
+
+			if (move != RadikalChessAction.NO_MOVE) return RadikalChessAction.decode(move);
+		}
+
+		prepareTable();
+		prepareWorkers();
+
+		for (SearchWorker worker : workers) {
+			worker.reset(state, actions.get(0).encode());
+		}
+
+		Thread[] helpers = new Thread[workers.length - 1];
+
+		for (int i = 0; i < helpers.length; i++) {
+			helpers[i] = new Thread(workers[i + 1], "ABSearch-" + (i + 1));
+			helpers[i].setDaemon(true);
+			helpers[i].start();
+		}
+
+		workers[0].run();
+		stop = true;
+
+		for (Thread helper : helpers) {
+			try {
+				helper.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		for (SearchWorker worker : workers) {
+			statistics.add(worker.getStatistics());
+			maxDepth = Math.max(maxDepth, worker.getMaxDepth());
+		}
+
+		statistics.copyIterations(workers[0].getStatistics());
+		expandedNodes = (int) statistics.getNodes();
+
+		bestScore = workers[0].getBestScore();
+
+		return RadikalChessAction.decode(workers[0].getBestMove());
+	}
+
+	/**
+	 * Medita durante el turno del rival. Si la tabla de transposiciones
+	 * tiene un movimiento para él (normalmente la continuación de la última
+	 * búsqueda) se busca la posición tras esa respuesta prevista; si no, se
+	 * busca la posición del rival, lo que deja en la tabla sus respuestas.
+	 * La búsqueda no tiene límite de tiempo hasta la siguiente llamada a
+	 * makeDecision: si llega la posición prevista se aprovecha tal cual, y
+	 * si no se detiene y se busca de nuevo con la tabla ya caliente.
+	 * 
+	 * @param state Posición en la que mueve el rival.
+	 */
+	public void ponder(RadikalChessState state) {
+		stopPondering();
+
+		if (!state.hasBothKings()) return;
+
+		RadikalChessState target = state;
+		long entry = table.probe(state.getHash());
+
+		if (entry != TranspositionTable.MISS) {
+			int predicted = TranspositionTable.getMove(entry);
+
+			for (RadikalChessAction action : chessGame.getActions(state)) {
+				if (action.encode() == predicted) {
+					target = chessGame.getResult(state, action);
+					break;
+				}
+			}
+		}
+
+		if (chessGame.isTerminal(target)) return;
+
+		final RadikalChessState root = target;
+
+		ponderState = root;
+		ponderResult = null;
+		pondering = true;
+		startTime = System.currentTimeMillis();
+		stop = false;
+
+		ponderThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				ponderResult = decide(root);
+			}
+		}, "ABSearch-ponder");
+		ponderThread.setDaemon(true);
+		ponderThread.start();
+	}
+
+	/**
+	 * Detiene la meditación en curso, si la hay, y descarta su resultado
+	 * (lo aprendido queda en la tabla de transposiciones).
+	 */
+	public void stopPondering() {
+		if (ponderThread == null) return;
+
+		stop = true;
+		pondering = false;
+		joinPonder();
+	}
+
+	private void joinPonder() {
+		try {
+			ponderThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		ponderThread = null;
+		ponderState = null;
+	}
+
+	/**
+	 * @return Si la última decisión venía de la meditación (acierto).
+	 */
+	public boolean isPonderHit() {
+		return ponderHit;
+	}
+
+	/**
+	 * Añade las estadísticas de la última decisión al fichero configurado.
+	 */
+	private void exportStatistics() {
+		if (statisticsFile == null) return;
+
+		try {
+			statistics.appendTo(statisticsFile);
+		} catch (IOException e) {
+			System.out.println("Couldn't write statistics to " + statisticsFile);
+			statisticsFile = null;
+		}
+	}
+
+	/**
+	 * @return Gestor del tiempo de cada movimiento, Getter.
+	 */
+	public TimeManager getTimeManager() {
+		return timeManager;
+	}
+
+	/**
+	 * Permite, p. ej., llevar un reloj por jugador con una misma búsqueda.
+	 * 
+	 * @param timeManager Gestor del tiempo de cada movimiento, Setter.
+	 */
+	public void setTimeManager(TimeManager timeManager) {
+		this.timeManager = timeManager;
+	}
+
+	/**
+	 * @return Estadísticas de la última decisión (se reutilizan en la
+	 * siguiente; cópiese lo que haga falta conservar).
+	 */
+	public SearchStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @return Fichero al que se añaden las estadísticas, null si no hay, Getter.
+	 */
+	public String getStatisticsFile() {
+		return statisticsFile;
+	}
+
+	/**
+	 * Tras cada decisión se añaden sus estadísticas al fichero: en JSON
+	 * (una línea por decisión) si acaba en ".json" y si no en CSV.
+	 * 
+	 * @param statisticsFile Nombre del fichero, null para no exportar, Setter.
+	 */
+	public void setStatisticsFile(String statisticsFile) {
+		this.statisticsFile = statisticsFile;
+	}
+
+	/**
+	 * Las puntuaciones guardadas dependen de los pesos de las heurísticas;
+	 * si han cambiado desde la última búsqueda la tabla deja de ser válida.
+	 */
+	private void prepareTable() {
+		double[] weights = chessGame.getHeuristicsw();
+
+		if (!Arrays.equals(tableWeights, weights)) {
+			table.clear();
+			tableWeights = weights;
+		}
+
+		table.newSearch();
+	}
+
+	/**
+	 * Crea un trabajador por hilo si ha cambiado el número de hilos.
+	 */
+	private void prepareWorkers() {
+		if (workers.length != threads) {
+			workers = new SearchWorker[threads];
+
+			for (int i = 0; i < threads; i++) {
+				workers[i] = new SearchWorker(this, chessGame, table, i);
+			}
+		}
+	}
+
+	/**
+	 * @return Si la búsqueda debe terminar (tiempo agotado u orden de parar).
+	 * Mientras se medita solo cuenta la orden de parar.
+	 */
+	boolean isTimeUp() {
+		return stop || (!pondering && timeManager.isHardLimit(System.currentTimeMillis() - startTime));
+	}
+
+	/**
+	 * Consulta del trabajador principal al terminar una iteración (véase
+	 * TimeManager.nextIteration). Mientras se medita no hay límite.
+	 * 
+	 * @param stable Iteraciones seguidas con el mismo mejor movimiento.
+	 * @param last Nanosegundos de la última iteración.
+	 * @param previous Nanosegundos de la anterior (0 si no la hay).
+	 * @return Si se debe empezar otra iteración.
+	 */
+	boolean nextIteration(int stable, long last, long previous) {
+		return pondering || 
+				timeManager.nextIteration(System.currentTimeMillis() - startTime, stable, last, previous);
+	}
+
+	double getUtilMax() {
+		return utilMax;
+	}
+
+	/**
+	 * Vacía la tabla de transposiciones, para que la siguiente búsqueda no
+	 * aproveche nada de las anteriores (medidas repetibles).
+	 */
+	public void clearTable() {
+		table.clear();
+	}
+
+	/**
+	 * @return Profundidad máxima de la profundización iterativa, Getter.
+	 */
+	public int getDepthLimit() {
+		return depthLimit;
+	}
+
+	/**
+	 * Limita la profundidad de la búsqueda; junto con un tiempo holgado
+	 * permite búsquedas de profundidad fija.
+	 * 
+	 * @param depthLimit Profundidad máxima (1..MAX_PLY - 1), Setter.
+	 */
+	public void setDepthLimit(int depthLimit) {
+		this.depthLimit = Math.max(1, Math.min(depthLimit, MAX_PLY - 1));
+	}
+
+	/**
+	 * @return Nodos de quietud por nodo del horizonte (0 = sin quietud), Getter.
+	 */
+	public int getQuiescenceNodes() {
+		return quiescenceNodes;
 	}
-	
-	/* 
+
+	/**
+	 * En el horizonte se siguen las capturas (véase SearchWorker.quiesce)
+	 * hasta este número de nodos; con 0 se evalúa directamente.
+	 * 
+	 * @param quiescenceNodes Nodos por nodo del horizonte, Setter.
+	 */
+	public void setQuiescenceNodes(int quiescenceNodes) {
+		this.quiescenceNodes = Math.max(0, quiescenceNodes);
+	}
+
+	/**
+	 * @return Semianchura de la ventana de aspiración (0 = sin aspiración), Getter.
+	 */
+	public double getAspirationWindow() {
+		return aspirationWindow;
+	}
+
+	/**
+	 * Cada iteración busca con una ventana de esta semianchura alrededor de
+	 * la puntuación de la anterior (véase SearchWorker.aspiration).
+	 * 
+	 * @param aspirationWindow Semianchura en unidades de la evaluación, Setter.
+	 */
+	public void setAspirationWindow(double aspirationWindow) {
+		this.aspirationWindow = Math.max(0., aspirationWindow);
+	}
+
+	/**
+	 * @return Si se usa la poda del movimiento nulo, Getter.
+	 */
+	public boolean isNullMove() {
+		return nullMove;
+	}
+
+	/**
+	 * @param nullMove Si se usa la poda del movimiento nulo, Setter.
+	 */
+	public void setNullMove(boolean nullMove) {
+		this.nullMove = nullMove;
+	}
+
+	/**
+	 * @return Si se reducen los movimientos tardíos (LMR), Getter.
+	 */
+	public boolean isLateMoveReductions() {
+		return lateMoveReductions;
+	}
+
+	/**
+	 * @param lateMoveReductions Si se reducen los movimientos tardíos (LMR), Setter.
+	 */
+	public void setLateMoveReductions(boolean lateMoveReductions) {
+		this.lateMoveReductions = lateMoveReductions;
+	}
+
+	/**
+	 * @return Puntuación del movimiento elegido en la última búsqueda, para
+	 * el jugador que movía (0 si no hubo búsqueda).
+	 */
+	public double getBestScore() {
+		return bestScore;
+	}
+
+	/**
+	 * @return Tablas de finales consultadas, null si no hay, Getter.
+	 */
+	public Tablebase getTablebase() {
+		return tablebase;
+	}
+
+	/**
+	 * Con tablas de finales, las posiciones que cubren se responden sin
+	 * buscar en la raíz y con su valor exacto dentro del árbol.
+	 * 
+	 * @param tablebase Tablas de finales, null para no usarlas, Setter.
+	 */
+	public void setTablebase(Tablebase tablebase) {
+		this.tablebase = tablebase;
+	}
+
+	/**
+	 * @return Libro de aperturas consultado, null si no hay, Getter.
+	 */
+	public OpeningBook getBook() {
+		return book;
+	}
+
+	/**
+	 * Con libro, las posiciones que contiene se responden sin buscar (el
+	 * movimiento se comprueba entre los legales por si la clave coincide
+	 * con otra posición). Si el libro se hizo con otros pesos de la
+	 * heurística que los del juego, no se consulta.
+	 * 
+	 * @param book Libro de aperturas, null para no usarlo, Setter.
+	 */
+	public void setBook(OpeningBook book) {
+		this.book = book;
+	}
+
+	/**
+	 * @return Número de hilos de búsqueda, Getter.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @param threads Número de hilos de búsqueda (1 = secuencial), Setter.
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/*
 	 * Cambios en la manera de evaluación (no solo nodos hoja).
 	 */
 	@Override
@@ -28,4 +593,14 @@ public class ABSearch extends
 			return game.getUtility(state, player);
 		}
 	}
-}
\ No newline at end of file
+
+	@Override
+	public Metrics getMetrics() {
+		Metrics metrics = new Metrics();
+
+		metrics.set("expandedNodes", expandedNodes);
+		metrics.set("maxDepth", maxDepth);
+
+		return metrics;
+	}
+}
@@ -1,6 +1,7 @@
 package Model;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -40,12 +41,139 @@ public abstract class ChessPiece implements Serializable {
 	
 	
 	/**
+	 * @return Tipo de ficha, índice de su máscara en RadikalChessState.
+	 */
+	public abstract int getType();
+	
+	
+	/**
+	 * Generador de movimientos sin reservar memoria: escribe los movimientos
+	 * codificados (RadikalChessAction.encode) en el buffer del llamante.
+	 * 
+	 * @param state Estado del tablero.
+	 * @param sq Casilla de la ficha.
+	 * @param buffer Buffer de movimientos.
+	 * @param count Primera posición libre del buffer.
+	 * @return Nueva primera posición libre del buffer.
+	 */
+	public abstract int getMoves(RadikalChessState state, int sq, int[] buffer, int count);
+	
+	/**
+	 * Destinos de la ficha como máscara, con las mismas normas que getMoves.
+	 * Cada movimiento de una ficha va a una casilla distinta, así que el
+	 * número de movimientos es el número de bits de la máscara.
+	 * 
+	 * @param state Estado del tablero.
+	 * @param sq Casilla de la ficha.
+	 * @return Máscara de casillas a las que puede ir.
+	 */
+	public abstract long getTargets(RadikalChessState state, int sq);
+	
+	/**
+	 * Adaptador de getMoves para quien necesita objetos RadikalChessAction.
+	 * 
 	 * @param state Estado del tablero.
 	 * @param x Coord.
 	 * @param y Coord.
 	 * @return Lista de los movimientos posible dado un estado y si estuviera en (x,y).
 	 */
-	public abstract List<RadikalChessAction> getAction(RadikalChessState state, int x, int y);
+	public List<RadikalChessAction> getAction(RadikalChessState state, int x, int y) {
+		int[] buffer = scratch();
+		int count = getMoves(state, RadikalChessState.square(x, y), buffer, 0);
+		List<RadikalChessAction> actionList = new ArrayList<RadikalChessAction>(count);
+
+		for (int i = 0; i < count; i++) {
+			actionList.add(RadikalChessAction.decode(buffer[i]));
+		}
+
+		return actionList;
+	}
+
+	/**
+	 * Buffer de trabajo por hilo, para quien solo necesita contar o recorrer
+	 * movimientos sin guardarlos.
+	 */
+	private static final ThreadLocal<int[]> SCRATCH = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[2 * RadikalChessGame.MAX_MOVES];
+		}
+	};
+
+	static int[] scratch() {
+		return SCRATCH.get();
+	}
+	
+	/**
+	 * Movimientos a lo largo de los rayos indicados (torre y alfil). En cada
+	 * rayo: una ficha propia lo corta, una casilla vacía es movimiento si
+	 * acerca la ficha al rey enemigo y una ficha enemiga es captura y corta.
+	 * 
+	 * @param state Estado del tablero.
+	 * @param sq Casilla de la ficha.
+	 * @param directions Direcciones de RadikalChessGeometry.
+	 * @param buffer Buffer de movimientos.
+	 * @param count Primera posición libre del buffer.
+	 * @return Nueva primera posición libre del buffer.
+	 */
+	protected int slide(RadikalChessState state, int sq, int[] directions, int[] buffer, int count) {
+		long own = state.getPieces(owner);
+		long occupied = state.getOccupied();
+		int[] distance = RadikalChessGeometry.DISTANCE[RadikalChessUtil.getEnemyKingSquare(state, owner)];
+
+		for (int direction : directions) {
+			for (int to : RadikalChessGeometry.RAYS[sq][direction]) {
+				long bit = 1L << to;
+
+				if ((own & bit) != 0) break;
+
+				if ((occupied & bit) == 0) {
+					if (distance[to] < distance[sq]) {
+						buffer[count++] = RadikalChessAction.encode(sq, to, false);
+					}
+					continue;
+				}
+
+				buffer[count++] = RadikalChessAction.encode(sq, to, true);
+				break;
+			}
+		}
+
+		return count;
+	}
+	
+	/**
+	 * Versión en máscara de slide.
+	 * 
+	 * @param state Estado del tablero.
+	 * @param sq Casilla de la ficha.
+	 * @param directions Direcciones de RadikalChessGeometry.
+	 * @return Máscara de destinos.
+	 */
+	protected long slideTargets(RadikalChessState state, int sq, int[] directions) {
+		long own = state.getPieces(owner);
+		long occupied = state.getOccupied();
+		int[] distance = RadikalChessGeometry.DISTANCE[RadikalChessUtil.getEnemyKingSquare(state, owner)];
+		long targets = 0L;
+
+		for (int direction : directions) {
+			for (int to : RadikalChessGeometry.RAYS[sq][direction]) {
+				long bit = 1L << to;
+
+				if ((own & bit) != 0) break;
+
+				if ((occupied & bit) == 0) {
+					if (distance[to] < distance[sq]) targets |= bit;
+					continue;
+				}
+
+				targets |= bit;
+				break;
+			}
+		}
+
+		return targets;
+	}
 	
 	/**
 	 * Getter del propietario.
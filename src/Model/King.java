@@ -1,8 +1,5 @@
 package Model;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Clase representativa del Rey.
  * 
@@ -26,71 +23,47 @@ public class King extends ChessPiece {
 	}
 
 	@Override
-	public List<RadikalChessAction> getAction(RadikalChessState state, int x, int y) {
-		return getActionList(state,x ,y);
+	public int getType() {
+		return RadikalChessState.KING;
 	}
 
+	@Override
+	public int getMoves(RadikalChessState state, int sq, int[] buffer, int count) {
+		long enemy = state.getPieces(RadikalChessUtil.otherPlayer(getOwner()));
+		long occupied = state.getOccupied();
+		int[] distance = RadikalChessGeometry.DISTANCE[RadikalChessUtil.getEnemyKingSquare(state, getOwner())];
 
-	/**
-	 * @param state Un estado dado.
-	 * @param x Coord.
-	 * @param y Coord.
-	 * @return Lista de acciones que puede realizar el rey dado un estado y coordenadas.
-	 */
-	private List<RadikalChessAction> getActionList(RadikalChessState state, int x, int y) {
-		List<RadikalChessAction> actionList = new ArrayList<RadikalChessAction>();
-		
-		// X + 1
-		if (RadikalChessUtil.inRange(state, x, y, x + 1, y, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x + 1, y, false));
-		} else if (RadikalChessUtil.isEnemy(state, x + 1, y, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x + 1, y, true));
-		}
-		// X - 1
-		if (RadikalChessUtil.inRange(state, x, y, x - 1, y, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x - 1, y, false));
-		} else if (RadikalChessUtil.isEnemy(state, x - 1, y, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x - 1, y, true));
-		}
-		// Y + 1
-		if (RadikalChessUtil.inRange(state, x, y, x, y + 1, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x, y + 1, false));
-		} else if (RadikalChessUtil.isEnemy(state, x, y + 1, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x, y + 1, true));
-		}
-		// Y - 1
-		if (RadikalChessUtil.inRange(state, x, y, x, y - 1, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x, y - 1, false));
-		} else if (RadikalChessUtil.isEnemy(state, x, y - 1, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x, y - 1, true));
-		}
-		
-		// X + 1, Y + 1
-		if (RadikalChessUtil.inRange(state, x, y, x + 1, y + 1, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x + 1, y + 1, false));
-		} else if (RadikalChessUtil.isEnemy(state, x + 1, y + 1, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x + 1, y + 1, true));
-		}
-		// X + 1, Y - 1
-		if (RadikalChessUtil.inRange(state, x, y, x + 1, y - 1, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x + 1, y - 1, false));
-		} else if (RadikalChessUtil.isEnemy(state, x + 1, y - 1, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x + 1, y - 1, true));
-		}
-		// X - 1, Y + 1
-		if (RadikalChessUtil.inRange(state, x, y, x - 1, y + 1, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x - 1, y + 1, false));
-		} else if (RadikalChessUtil.isEnemy(state, x - 1, y + 1, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x - 1, y + 1, true));
-		}
-		// X - 1, Y - 1
-		if (RadikalChessUtil.inRange(state, x, y, x - 1, y - 1, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x - 1, y - 1, false));
-		} else if (RadikalChessUtil.isEnemy(state, x - 1, y - 1, getOwner())) {
-			actionList.add(new RadikalChessAction(x, y, x - 1, y - 1, true));
+		for (int to : RadikalChessGeometry.KING_STEPS[sq]) {
+			long bit = 1L << to;
+
+			if ((occupied & bit) == 0) {
+				if (distance[to] < distance[sq]) {
+					buffer[count++] = RadikalChessAction.encode(sq, to, false);
+				}
+			} else if ((enemy & bit) != 0) {
+				buffer[count++] = RadikalChessAction.encode(sq, to, true);
+			}
 		}
 			
-		return actionList;
+		return count;
+	}
+
+	@Override
+	public long getTargets(RadikalChessState state, int sq) {
+		long enemy = state.getPieces(RadikalChessUtil.otherPlayer(getOwner()));
+		long occupied = state.getOccupied();
+		int[] distance = RadikalChessGeometry.DISTANCE[RadikalChessUtil.getEnemyKingSquare(state, getOwner())];
+		long targets = 0L;
+
+		for (int to : RadikalChessGeometry.KING_STEPS[sq]) {
+			long bit = 1L << to;
+
+			if ((occupied & bit) == 0 ? distance[to] < distance[sq] : (enemy & bit) != 0) {
+				targets |= bit;
+			}
+		}
+
+		return targets;
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package Model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+
+/**
+ * Lectura de los estados guardados con serialización de Java por las
+ * versiones anteriores (RadikalChessState con la matriz de fichas).
+ *
+ * Las clases actuales ya no tienen esa forma, así que el flujo se lee
+ * sobre las réplicas de Model.legacy: cada descriptor de una clase
+ * antigua se sustituye por el de su réplica local, que tiene los mismos
+ * campos. Así tampoco influye el serialVersionUID que el compilador de
+ * entonces calculara para las fichas.
+ *
+ * @author Quique
+ */
+public class LegacyStateConverter {
+
+	/**
+	 * Cabecera de un flujo de serialización de Java.
+	 */
+	public static final int STREAM_MAGIC = 0xACED;
+
+	private static final String[] CLASSES = {"RadikalChessState", "ChessPiece", "King", "Queen", "Rook", "Bishop", "Pawn"};
+	private static final String PACKAGE = "Model.";
+	private static final String LEGACY = "Model.legacy.";
+
+	/**
+	 * @param in Flujo con un RadikalChessState serializado.
+	 * @return El estado equivalente.
+	 */
+	public static RadikalChessState read(InputStream in) throws IOException {
+		ObjectInputStream legacy = new ObjectInputStream(in) {
+			@Override
+			protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+				ObjectStreamClass descriptor = super.readClassDescriptor();
+				String name = local(descriptor.getName());
+
+				return (name == null) ? descriptor : ObjectStreamClass.lookup(Class.forName(name));
+			}
+		};
+
+		try {
+			return convert((Model.legacy.RadikalChessState) legacy.readObject());
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException("Not a saved state", e);
+		}
+	}
+
+	/**
+	 * @return Nombre de la réplica de la clase (o matriz de ella), null si no la hay.
+	 */
+	private static String local(String name) {
+		String element = name.replaceFirst("^\\[+L", "").replaceFirst(";$", "");
+
+		for (String legacy : CLASSES) {
+			if (element.equals(PACKAGE + legacy)) {
+				return name.replace(PACKAGE + legacy, LEGACY + legacy);
+			}
+		}
+
+		return null;
+	}
+
+	private static RadikalChessState convert(Model.legacy.RadikalChessState old) throws IOException {
+		Model.legacy.ChessPiece[][] oldBoard = old.getBoard();
+		ChessPiece[][] board = new ChessPiece[RadikalChessState.WIDTH][RadikalChessState.HEIGHT];
+
+		if (oldBoard == null || oldBoard.length != RadikalChessState.WIDTH) {
+			throw new IOException("Unexpected board size");
+		}
+
+		for (int i = 0; i < RadikalChessState.WIDTH; i++) {
+			if (oldBoard[i].length != RadikalChessState.HEIGHT) {
+				throw new IOException("Unexpected board size");
+			}
+
+			for (int j = 0; j < RadikalChessState.HEIGHT; j++) {
+				if (oldBoard[i][j] != null) {
+					board[i][j] = RadikalChessUtil.newPiece(oldBoard[i][j].getType(), oldBoard[i][j].getOwner());
+				}
+			}
+		}
+
+		RadikalChessState state = new RadikalChessState(board);
+		state.setPlayer((old.getPlayer() == null) ? RadikalChessPlayer.WHITE : old.getPlayer());
+
+		return state;
+	}
+}
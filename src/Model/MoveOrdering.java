@@ -0,0 +1,134 @@
+package Model;
+
+/**
+ * Ordenación de movimientos para la búsqueda alpha-beta. Por orden:
+ * 
+ * 		- Movimiento de la tabla de transposiciones (o de la variante principal).
+ *		- Capturas, por valor de la víctima y luego del atacante (MVV/LVA).
+ *		- Movimientos asesinos (killer moves) del mismo nivel.
+ *		- Resto de movimientos, según la tabla de historia.
+ * 
+ * Cada hilo de búsqueda debe tener su propia instancia.
+ * 
+ * @author Quique
+ */
+public class MoveOrdering {
+
+	private static final int HASH_SCORE = 1 << 30;
+	private static final int CAPTURE_SCORE = 1 << 28;
+	private static final int KILLER_SCORE = 1 << 27;
+
+	private int[][] killers;
+	private int[][] history = new int[RadikalChessState.SQUARES][RadikalChessState.SQUARES];
+	private int[][] scores;
+
+	/**
+	 * @param maxPly Niveles de la búsqueda (dos killers por nivel).
+	 */
+	public MoveOrdering(int maxPly) {
+		killers = new int[maxPly][2];
+		scores = new int[maxPly][RadikalChessGame.MAX_MOVES];
+	}
+
+	/**
+	 * Prepara una nueva búsqueda: olvida los killers y reduce la historia
+	 * a la mitad para que pese más lo aprendido en esta.
+	 */
+	public void newSearch() {
+		for (int[] killer : killers) {
+			killer[0] = RadikalChessAction.NO_MOVE;
+			killer[1] = RadikalChessAction.NO_MOVE;
+		}
+
+		for (int[] row : history) {
+			for (int i = 0; i < row.length; i++) {
+				row[i] >>= 1;
+			}
+		}
+	}
+
+	/**
+	 * Ordena los movimientos del nodo, del más prometedor al menos.
+	 * 
+	 * @param state Estado del nodo.
+	 * @param moves Movimientos codificados del jugador que mueve.
+	 * @param count Número de movimientos.
+	 * @param hashMove Movimiento de la tabla de transposiciones o NO_MOVE.
+	 * @param ply Nivel del nodo.
+	 */
+	public void order(RadikalChessState state, int[] moves, int count, int hashMove, int ply) {
+		int[] score = scores[ply];
+
+		for (int i = 0; i < count; i++) {
+			score[i] = score(state, moves[i], hashMove, ply);
+		}
+
+		for (int i = 0; i < count - 1; i++) {
+			int best = i;
+
+			for (int j = i + 1; j < count; j++) {
+				if (score[j] > score[best]) best = j;
+			}
+
+			if (best != i) {
+				int swap = moves[i];
+				moves[i] = moves[best];
+				moves[best] = swap;
+				swap = score[i];
+				score[i] = score[best];
+				score[best] = swap;
+			}
+		}
+	}
+
+	/**
+	 * @return Prioridad del movimiento codificado.
+	 */
+	private int score(RadikalChessState state, int move, int hashMove, int ply) {
+		int from = move & 31;
+		int to = (move >>> 5) & 31;
+
+		if (move == hashMove) return HASH_SCORE;
+
+		if (RadikalChessAction.isCapture(move)) {
+			int victim = RadikalChessState.valueOf(state.getType(to));
+			int attacker = RadikalChessState.valueOf(state.getType(from));
+
+			return CAPTURE_SCORE + victim * 64 - attacker;
+		}
+
+		if (move == killers[ply][0]) return KILLER_SCORE + 1;
+		if (move == killers[ply][1]) return KILLER_SCORE;
+
+		return history[from][to];
+	}
+
+	/**
+	 * Tras order, indica si el movimiento i del nivel es tranquilo: ni el
+	 * de la tabla, ni captura, ni killer (candidato a reducirse).
+	 */
+	public boolean isQuiet(int ply, int i) {
+		return scores[ply][i] < KILLER_SCORE;
+	}
+
+	/**
+	 * Aprende de un movimiento que ha provocado un corte beta.
+	 * 
+	 * @param move Movimiento codificado.
+	 * @param depth Profundidad restante del nodo.
+	 * @param ply Nivel del nodo.
+	 */
+	public void cutoff(int move, int depth, int ply) {
+		if (RadikalChessAction.isCapture(move)) return;
+
+		if (killers[ply][0] != move) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+
+		int from = move & 31;
+		int to = (move >>> 5) & 31;
+
+		history[from][to] = Math.min(history[from][to] + depth * depth, KILLER_SCORE - 1);
+	}
+}
@@ -0,0 +1,165 @@
+package Model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Libro de aperturas: para cada posición (clave Zobrist) el movimiento
+ * elegido por una búsqueda profunda hecha de antemano (OpeningBookBuilder).
+ *
+ * El fichero se proyecta en memoria y se busca por bisección. Formato:
+ * cabecera de 28 bytes (MAGIC, VERSION, clave del tablero inicial, clave
+ * de los pesos y número de entradas) y entradas de 16 bytes ordenadas por
+ * clave: clave (long), movimiento (short), profundidad (short) y
+ * puntuación (float).
+ *
+ * La clave del tablero inicial comprueba que el libro se hizo con las
+ * mismas claves Zobrist que usa el programa, y la de los pesos que sus
+ * movimientos se buscaron con los pesos de la heurística que se usan
+ * (véase isFor).
+ *
+ * @author Quique
+ */
+public class OpeningBook {
+
+	public static final String DEFAULT_FILE = "opening.book";
+
+	private static final int MAGIC = 0x5243424B; // "RCBK"
+	private static final int VERSION = 2;
+	private static final int HEADER = 28;
+	private static final int ENTRY = 16;
+
+	private final ByteBuffer buffer;
+	private final long weights;
+	private final int count;
+
+	private OpeningBook(ByteBuffer buffer, long weights, int count) {
+		this.buffer = buffer;
+		this.weights = weights;
+		this.count = count;
+	}
+
+	/**
+	 * @param filename Fichero del libro.
+	 * @return El libro, null si no existe o no es válido.
+	 */
+	public static OpeningBook open(String filename) {
+		File file = new File(filename);
+
+		if (!file.isFile() || file.length() < HEADER) return null;
+
+		try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+			ByteBuffer buffer = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+			int count = buffer.getInt(24);
+
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION ||
+					buffer.getLong(8) != new RadikalChessState().getHash() ||
+					file.length() != HEADER + (long) count * ENTRY) {
+				System.out.println("Invalid opening book " + filename + ".");
+				return null;
+			}
+
+			return new OpeningBook(buffer, buffer.getLong(16), count);
+		} catch (IOException e) {
+			System.out.println("Couldn't load " + filename + ".");
+			return null;
+		}
+	}
+
+	/**
+	 * @return Número de posiciones del libro.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * @param heuristicsw Pesos de la heurística del juego.
+	 * @return Si el libro se construyó con esos pesos.
+	 */
+	public boolean isFor(double[] heuristicsw) {
+		return weights == weightsKey(heuristicsw);
+	}
+
+	/**
+	 * @return Clave de un vector de pesos (0. y -0. cuentan igual).
+	 */
+	private static long weightsKey(double[] heuristicsw) {
+		long key = heuristicsw.length;
+
+		for (double weight : heuristicsw) {
+			key = key * 0x9E3779B97F4A7C15L + Double.doubleToLongBits(weight + 0.);
+		}
+
+		return key;
+	}
+
+	/**
+	 * @param key Clave Zobrist de la posición.
+	 * @return Movimiento codificado del libro, NO_MOVE si no está.
+	 */
+	public int probe(long key) {
+		int low = 0, high = count - 1;
+
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long value = buffer.getLong(HEADER + mid * ENTRY);
+
+			if (value < key) {
+				low = mid + 1;
+			} else if (value > key) {
+				high = mid - 1;
+			} else {
+				return buffer.getShort(HEADER + mid * ENTRY + 8) & 0xFFFF;
+			}
+		}
+
+		return RadikalChessAction.NO_MOVE;
+	}
+
+	/**
+	 * Escribe un libro.
+	 *
+	 * @param filename Fichero de destino.
+	 * @param heuristicsw Pesos de la heurística con que se buscaron las entradas.
+	 * @param entries Entradas por clave, con el formato de pack.
+	 */
+	public static void write(String filename, double[] heuristicsw, SortedMap<Long, Long> entries) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(new RadikalChessState().getHash());
+			out.writeLong(weightsKey(heuristicsw));
+			out.writeInt(entries.size());
+
+			for (Map.Entry<Long, Long> entry : entries.entrySet()) {
+				long value = entry.getValue();
+
+				out.writeLong(entry.getKey());
+				out.writeShort((int) value & 0xFFFF);
+				out.writeShort((int) (value >>> 16) & 0xFFFF);
+				out.writeInt((int) (value >>> 32));
+			}
+		}
+	}
+
+	/**
+	 * @return Entrada empaquetada: movimiento (bits 0-15), profundidad
+	 * (16-31) y puntuación como float (32-63).
+	 */
+	static long pack(int move, int depth, double score) {
+		return (move & 0xFFFFL) | ((depth & 0xFFFFL) << 16) | ((long) Float.floatToIntBits((float) score) << 32);
+	}
+
+	static int getMove(long value) {
+		return (int) value & 0xFFFF;
+	}
+}
@@ -0,0 +1,95 @@
+package Model;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Construcción del libro de aperturas (OpeningBook) desde el tablero
+ * inicial.
+ *
+ * Se recorre el árbol hasta el número de medios movimientos indicado,
+ * una vez con el programa jugando con blancas y otra con negras: en las
+ * posiciones en las que mueve el programa se busca (y se guarda) su mejor
+ * movimiento y solo se sigue por él; en las del rival se siguen todas las
+ * respuestas. Así el libro cubre cualquier apertura del rival sin guardar
+ * posiciones a las que el programa nunca llevaría.
+ *
+ * Cada búsqueda usa los pesos del juego recibido y el tiempo o la
+ * profundidad de la búsqueda recibida.
+ *
+ * @author Quique
+ */
+public class OpeningBookBuilder {
+
+	private final RadikalChessGame game;
+	private final ABSearch search;
+	private final PrintStream log;
+	private final SortedMap<Long, Long> entries = new TreeMap<>();
+	private final Map<Long, Integer> visited = new HashMap<>();
+
+	/**
+	 * @param search Búsqueda de cada posición, ya configurada.
+	 * @param log Salida del progreso, null para no informar.
+	 */
+	public OpeningBookBuilder(RadikalChessGame game, ABSearch search, PrintStream log) {
+		this.game = game;
+		this.search = search;
+		this.log = log;
+	}
+
+	/**
+	 * Construye y guarda el libro.
+	 *
+	 * @param plies Medios movimientos desde el tablero inicial.
+	 * @param filename Fichero de destino.
+	 */
+	public void build(int plies, String filename) throws IOException {
+		for (RadikalChessPlayer engine : game.getPlayers()) {
+			visited.clear();
+			expand(game.getInitialState(), 0, plies, engine);
+		}
+
+		OpeningBook.write(filename, game.getHeuristicsw(), entries);
+
+		if (log != null) log.println(entries.size() + " positions written to " + filename);
+	}
+
+	private void expand(RadikalChessState state, int ply, int plies, RadikalChessPlayer engine) {
+		if (ply >= plies || game.isTerminal(state)) return;
+
+		Integer seen = visited.get(state.getHash());
+
+		if (seen != null && seen <= ply) return;
+
+		visited.put(state.getHash(), ply);
+
+		if (state.getPlayer() == engine) {
+			Long entry = entries.get(state.getHash());
+
+			if (entry == null) {
+				RadikalChessAction action = search.makeDecision(state);
+
+				entry = OpeningBook.pack(action.encode(), Integer.parseInt(search.getMetrics().get("maxDepth")), search.getBestScore());
+				entries.put(state.getHash(), entry);
+
+				if (log != null) {
+					log.println(entries.size() + ": " + RadikalChessUtil.toText(state) + " -> " +
+							RadikalChessUtil.actionToNatural(state, action));
+				}
+			}
+
+			expand(game.getResult(state, RadikalChessAction.decode(OpeningBook.getMove(entry))), ply + 1, plies, engine);
+		} else {
+			List<RadikalChessAction> actions = game.getActions(state);
+
+			for (RadikalChessAction action : actions) {
+				expand(game.getResult(state, action), ply + 1, plies, engine);
+			}
+		}
+	}
+}
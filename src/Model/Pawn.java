@@ -1,8 +1,5 @@
 package Model;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Clase representativa del Peón.
  * 
@@ -26,74 +23,48 @@ public class Pawn extends ChessPiece {
 	}
 
 	@Override
-	public List<RadikalChessAction> getAction(RadikalChessState state, int x, int y) {
-		ArrayList<RadikalChessAction> ret = new ArrayList<>();
+	public int getType() {
+		return RadikalChessState.PAWN;
+	}
 
-		ArrayList<RadikalChessAction> capture = tryCapture(state, x, y);
-		RadikalChessAction forward = tryForward(state, x, y);
+	@Override
+	public int getMoves(RadikalChessState state, int sq, int[] buffer, int count) {
+		int color = getOwner().ordinal();
+		long enemy = state.getPieces(RadikalChessUtil.otherPlayer(getOwner()));
 
-		if (!capture.isEmpty()) {
-			ret.addAll(capture);
+		// Capturas en diagonal, si existen.
+		for (int to : RadikalChessGeometry.PAWN_CAPTURES[color][sq]) {
+			if ((enemy & (1L << to)) != 0) {
+				buffer[count++] = RadikalChessAction.encode(sq, to, true);
+			}
 		}
 
-		if (forward != null) {
-			ret.add(forward);
+		// Movimiento pasivo si es posible.
+		int forward = RadikalChessGeometry.PAWN_PUSH[color][sq];
+
+		if (forward >= 0 && (state.getOccupied() & (1L << forward)) == 0) {
+			buffer[count++] = RadikalChessAction.encode(sq, forward, false);
 		}
 
-		return ret;
+		return count;
 	}
 
-	/**
-	 * @param state Un estado dado.
-	 * @param x Coord.
-	 * @param y Coord.
-	 * @return Acción de movimiento pasivo si posible.
-	 */
-	private RadikalChessAction tryForward(RadikalChessState state, int x, int y) {	
-		switch (this.getOwner()) {
-			case BLACK:
-				if (!RadikalChessUtil.foundCollisionAll(state, x, y + 1)) {
-					return new RadikalChessAction(x, y, x, y + 1, false);
-				}
-				break;
-			case WHITE:
-				if (!RadikalChessUtil.foundCollisionAll(state, x, y - 1)) {
-					return new RadikalChessAction(x, y, x, y - 1, false);
-				}
+	@Override
+	public long getTargets(RadikalChessState state, int sq) {
+		int color = getOwner().ordinal();
+		long enemy = state.getPieces(RadikalChessUtil.otherPlayer(getOwner()));
+		long targets = 0L;
+
+		for (int to : RadikalChessGeometry.PAWN_CAPTURES[color][sq]) {
+			targets |= enemy & (1L << to);
 		}
 
-		return null;
-	}
+		int forward = RadikalChessGeometry.PAWN_PUSH[color][sq];
 
-	/**
-	 * @param state Un estado dado.
-	 * @param x Coord.
-	 * @param y Coord.
-	 * @return Movimientos de captura, si existen.
-	 */
-	private ArrayList<RadikalChessAction> tryCapture(RadikalChessState state, int x, int y) {
-		ArrayList<RadikalChessAction> list = new ArrayList<>();
-		
-		switch (this.getOwner()) {
-			case BLACK:
-				if (RadikalChessUtil.isEnemy(state, x + 1, y + 1, RadikalChessPlayer.BLACK)) {
-					list.add(new RadikalChessAction(x, y, x + 1, y + 1, true));
-				}
-				
-				if (RadikalChessUtil.isEnemy(state, x - 1, y + 1, RadikalChessPlayer.BLACK)) {
-					list.add(new RadikalChessAction(x, y, x - 1, y + 1, true));
-				}
-				break;
-			case WHITE:
-				if (RadikalChessUtil.isEnemy(state, x + 1, y - 1, RadikalChessPlayer.WHITE)) {
-					list.add(new RadikalChessAction(x, y, x + 1, y - 1, true));
-				}
-				
-				if (RadikalChessUtil.isEnemy(state, x - 1, y - 1, RadikalChessPlayer.WHITE)) {
-					list.add(new RadikalChessAction(x, y, x - 1, y - 1, true));
-				}
+		if (forward >= 0 && (state.getOccupied() & (1L << forward)) == 0) {
+			targets |= 1L << forward;
 		}
 
-		return list;
+		return targets;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,227 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Recuento del árbol de movimientos legales hasta una profundidad (perft).
+ * Sirve para validar cambios en la generación de movimientos, comparando
+ * los recuentos con los de la versión anterior, y para medir su velocidad.
+ *
+ * Se siguen las reglas de RadikalChessGame: un estado sin los dos reyes o
+ * sin movimientos es una hoja aunque no se haya llegado a la profundidad.
+ * Las capturas y promociones (newQueen) se cuentan en el último nivel.
+ *
+ * Opcionalmente los movimientos de la raíz se reparten en un ForkJoinPool
+ * y los recuentos de los subárboles se guardan por clave Zobrist y
+ * profundidad, para no recontar las transposiciones.
+ *
+ * @author Quique
+ */
+public class Perft {
+
+	private static final int NODES = 0;
+	private static final int CAPTURES = 1;
+	private static final int PROMOTIONS = 2;
+
+	private final RadikalChessGame game;
+	private boolean parallel = false;
+	private PerftTable table;
+
+	private long nodes;
+	private long captures;
+	private long promotions;
+	private long time;
+	private Map<RadikalChessAction, Long> divide = new LinkedHashMap<>();
+
+	public Perft(RadikalChessGame game) {
+		this.game = game;
+	}
+
+	/**
+	 * @param parallel Si se reparten los movimientos de la raíz entre hilos, Setter.
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * @param megabytes Tamaño de la tabla de recuentos, 0 para no usarla.
+	 */
+	public void setHashSize(int megabytes) {
+		table = (megabytes > 0) ? new PerftTable(megabytes) : null;
+	}
+
+	/**
+	 * Cuenta el árbol desde el estado dado; los resultados quedan en los getters.
+	 *
+	 * @param state Estado raíz (no se modifica).
+	 * @param depth Profundidad en medios movimientos.
+	 */
+	public void run(RadikalChessState state, int depth) {
+		long start = System.nanoTime();
+		List<RootTask> tasks = new ArrayList<>();
+
+		nodes = 0;
+		captures = 0;
+		promotions = 0;
+		divide = new LinkedHashMap<>();
+
+		if (depth <= 0 || !state.hasBothKings()) {
+			nodes = 1;
+		} else {
+			int[] moves = new int[RadikalChessGame.MAX_MOVES];
+			int count = game.getMoves(state, moves);
+
+			for (int i = 0; i < count; i++) {
+				tasks.add(new RootTask(state, moves[i], depth));
+			}
+
+			if (parallel) {
+				ForkJoinPool pool = new ForkJoinPool();
+
+				for (RootTask task : tasks) {
+					pool.execute(task);
+				}
+
+				pool.shutdown();
+			}
+
+			for (RootTask task : tasks) {
+				long[] totals = parallel ? task.join() : task.compute();
+
+				nodes += totals[NODES];
+				captures += totals[CAPTURES];
+				promotions += totals[PROMOTIONS];
+				divide.put(RadikalChessAction.decode(task.move), totals[NODES]);
+			}
+
+			if (count == 0) nodes = 1;
+		}
+
+		time = System.nanoTime() - start;
+	}
+
+	/**
+	 * Subárbol de un movimiento de la raíz, con sus propias copias del
+	 * estado y de los registros de deshacer.
+	 */
+	private class RootTask extends RecursiveTask<long[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final RadikalChessState state;
+		private final int move;
+		private final int depth;
+
+		RootTask(RadikalChessState root, int move, int depth) {
+			this.state = root.clone();
+			this.move = move;
+			this.depth = depth;
+		}
+
+		@Override
+		protected long[] compute() {
+			RadikalChessUndo[] undo = new RadikalChessUndo[depth];
+			int[][] moves = new int[depth][RadikalChessGame.MAX_MOVES];
+			long[] totals = new long[3];
+
+			for (int i = 0; i < depth; i++) {
+				undo[i] = new RadikalChessUndo();
+			}
+
+			state.makeMove(move, undo[0]);
+
+			if (depth == 1) {
+				leaf(undo[0], totals);
+			} else {
+				count(state, depth - 1, 1, moves, undo, totals);
+			}
+
+			return totals;
+		}
+	}
+
+	/**
+	 * Acumula en totals el recuento del subárbol del estado.
+	 */
+	private void count(RadikalChessState state, int depth, int ply, int[][] moves, RadikalChessUndo[] undo, long[] totals) {
+		long key = state.getHash();
+
+		if (table != null && depth > 1 && table.probe(key, depth, totals)) {
+			return;
+		}
+
+		int count = state.hasBothKings() ? game.getMoves(state, moves[ply]) : 0;
+
+		if (count == 0) {
+			totals[NODES]++;
+			return;
+		}
+
+		long[] before = (table != null && depth > 1) ? totals.clone() : null;
+
+		for (int i = 0; i < count; i++) {
+			int move = moves[ply][i];
+
+			state.makeMove(move, undo[ply]);
+
+			if (depth == 1) {
+				leaf(undo[ply], totals);
+			} else {
+				count(state, depth - 1, ply + 1, moves, undo, totals);
+			}
+
+			state.unmakeMove(move, undo[ply]);
+		}
+
+		if (before != null) {
+			table.store(key, depth, totals[NODES] - before[NODES], totals[CAPTURES] - before[CAPTURES],
+					totals[PROMOTIONS] - before[PROMOTIONS]);
+		}
+	}
+
+	private static void leaf(RadikalChessUndo undo, long[] totals) {
+		totals[NODES]++;
+
+		if (undo.getCapturedType() >= 0) totals[CAPTURES]++;
+		if (undo.getPromotedSquare() >= 0) totals[PROMOTIONS]++;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getCaptures() {
+		return captures;
+	}
+
+	public long getPromotions() {
+		return promotions;
+	}
+
+	/**
+	 * @return Duración del último recuento en nanosegundos.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * @return Nodos por segundo del último recuento.
+	 */
+	public long getNodesPerSecond() {
+		return (time == 0) ? 0 : (long) (nodes * 1e9 / time);
+	}
+
+	/**
+	 * @return Nodos del subárbol de cada movimiento de la raíz, en orden de generación.
+	 */
+	public Map<RadikalChessAction, Long> getDivide() {
+		return divide;
+	}
+}
@@ -0,0 +1,74 @@
+package Model;
+
+/**
+ * Tabla de recuentos de subárboles para Perft, indexada por clave Zobrist y
+ * profundidad. Cada entrada son cuatro long: la comprobación y los nodos,
+ * capturas y promociones del subárbol.
+ *
+ * Como TranspositionTable, se comparte entre hilos sin bloqueos: la
+ * comprobación es la clave combinada con los tres recuentos, de modo que
+ * una entrada a medio escribir no coincide y se trata como ausente. Se
+ * reemplaza siempre.
+ *
+ * @author Quique
+ */
+class PerftTable {
+
+	private static final int ENTRY_BYTES = 32;
+
+	private final long[] checks;
+	private final long[] nodes;
+	private final long[] captures;
+	private final long[] promotions;
+	private final int mask;
+
+	/**
+	 * @param megabytes Memoria máxima de la tabla.
+	 */
+	PerftTable(int megabytes) {
+		long entries = Math.max(1L, (long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+		int size = Integer.highestOneBit((int) Math.min(entries, 1 << 28));
+
+		checks = new long[size];
+		nodes = new long[size];
+		captures = new long[size];
+		promotions = new long[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * @return Clave de la entrada: la clave Zobrist mezclada con la profundidad.
+	 */
+	private static long key(long hash, int depth) {
+		return hash ^ (depth * 0x9E3779B97F4A7C15L);
+	}
+
+	/**
+	 * Suma a totals (nodos, capturas, promociones) los recuentos guardados.
+	 *
+	 * @return Si la entrada estaba en la tabla.
+	 */
+	boolean probe(long hash, int depth, long[] totals) {
+		long key = key(hash, depth);
+		int i = (int) key & mask;
+		long n = nodes[i], c = captures[i], p = promotions[i];
+
+		if (n == 0 || (checks[i] ^ n ^ c ^ p) != key) return false;
+
+		totals[0] += n;
+		totals[1] += c;
+		totals[2] += p;
+
+		return true;
+	}
+
+	void store(long hash, int depth, long n, long c, long p) {
+		long key = key(hash, depth);
+		int i = (int) key & mask;
+
+		nodes[i] = n;
+		captures[i] = c;
+		promotions[i] = p;
+		checks[i] = key ^ n ^ c ^ p;
+	}
+}
@@ -0,0 +1,102 @@
+package Model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lectura secuencial de ficheros de posiciones escritos con PositionWriter,
+ * por bloques y sobre un buffer directo. next(state) reutiliza el estado
+ * recibido, de modo que recorrer el fichero no crea objetos.
+ *
+ * @author Quique
+ */
+public class PositionReader implements Closeable {
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(PositionWriter.BLOCK * RadikalChessCodec.SIZE);
+	private final long size;
+
+	/**
+	 * Abre el fichero y comprueba la cabecera.
+	 *
+	 * @throws IOException Si no se puede leer o no es un fichero de posiciones.
+	 */
+	public PositionReader(String filename) throws IOException {
+		channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+
+		long length = channel.size() - PositionWriter.HEADER;
+		size = length / RadikalChessCodec.SIZE;
+
+		buffer.limit(PositionWriter.HEADER);
+
+		while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+			// Hasta completar la cabecera o llegar al final.
+		}
+
+		buffer.flip();
+
+		if (length < 0 || length % RadikalChessCodec.SIZE != 0 || buffer.getInt() != PositionWriter.MAGIC ||
+				buffer.getInt() != PositionWriter.VERSION) {
+			channel.close();
+			throw new IOException("Not a position file: " + filename);
+		}
+
+		buffer.clear();
+		buffer.limit(0);
+	}
+
+	/**
+	 * @return Número de posiciones del fichero.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Lee la siguiente posición sobre el estado dado.
+	 *
+	 * @return Si había otra posición.
+	 */
+	public boolean next(RadikalChessState state) throws IOException {
+		if (buffer.remaining() < RadikalChessCodec.SIZE && !fill()) return false;
+
+		RadikalChessCodec.decode(buffer, state);
+
+		return true;
+	}
+
+	/**
+	 * @return La siguiente posición, null al final del fichero.
+	 */
+	public RadikalChessState next() throws IOException {
+		RadikalChessState state = new RadikalChessState();
+
+		return next(state) ? state : null;
+	}
+
+	/**
+	 * Lee el siguiente bloque conservando lo que quedara sin leer.
+	 *
+	 * @return Si hay al menos una posición completa.
+	 */
+	private boolean fill() throws IOException {
+		buffer.compact();
+
+		while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+			// Hasta llenar el buffer o llegar al final.
+		}
+
+		buffer.flip();
+
+		return buffer.remaining() >= RadikalChessCodec.SIZE;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
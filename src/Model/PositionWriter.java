@@ -0,0 +1,76 @@
+package Model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escritura de ficheros de posiciones: una cabecera de 8 bytes (MAGIC y
+ * VERSION) y las posiciones una tras otra en el formato de
+ * RadikalChessCodec. Se escribe por bloques desde un buffer directo, así
+ * que un fichero de millones de posiciones no pasa por memoria de golpe.
+ *
+ * @author Quique
+ */
+public class PositionWriter implements Closeable {
+
+	static final int MAGIC = 0x52435053; // "RCPS"
+	static final int VERSION = 1;
+	static final int HEADER = 8;
+
+	/**
+	 * Posiciones por bloque de escritura.
+	 */
+	static final int BLOCK = 4096;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK * RadikalChessCodec.SIZE);
+	private long count = 0;
+
+	/**
+	 * Crea (o vacía) el fichero y escribe la cabecera.
+	 */
+	public PositionWriter(String filename) throws IOException {
+		channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+	}
+
+	public void write(RadikalChessState state) throws IOException {
+		if (buffer.remaining() < RadikalChessCodec.SIZE) flush();
+
+		RadikalChessCodec.encode(state, buffer);
+		count++;
+	}
+
+	/**
+	 * @return Posiciones escritas.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+
+		buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+}
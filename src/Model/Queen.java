@@ -1,8 +1,5 @@
 package Model;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Clase representativa de la Reina.
  * 
@@ -26,279 +23,88 @@ public class Queen extends ChessPiece {
 	}
 
 	@Override
-	public List<RadikalChessAction> getAction(RadikalChessState state, int x, int y) {
-		return retrieveActionList(state, x, y, true);
+	public int getType() {
+		return RadikalChessState.QUEEN;
 	}
 
 	/**
-	 * @param state Un estado dado.
-	 * @param x Coord.
-	 * @param y Coord.
-	 * @param depth Esta ficha puede alejarse del rey para dar jaque, check de profundidad.
-	 * @return Acciones posibles.
-	 */
-	private List<RadikalChessAction> retrieveActionList(RadikalChessState state, int x, int y, boolean depth) {
-		List<RadikalChessAction> actionList = new ArrayList<RadikalChessAction>();
-
-		actionList.addAll(xAxisActionList(state, x, y, depth));
-		actionList.addAll(yAxisActionList(state, x, y, depth));
-		actionList.addAll(upperAxisActionList(state, x, y, depth));
-		actionList.addAll(lowerAxisActionList(state, x, y, depth));
-
-		return actionList;
-	}
-	
-	/**
-	 * @return Movimientos como una torre, eje X.
+	 * Movimientos como torre y como alfil. A diferencia del resto de fichas,
+	 * la reina puede ir a una casilla que no la acerca al rey enemigo si
+	 * desde ella amenaza con capturarlo.
 	 */
-	private List<RadikalChessAction> xAxisActionList(RadikalChessState state, int x, int y, boolean depth) {
-		List<RadikalChessAction> actionList = new ArrayList<RadikalChessAction>();
+	@Override
+	public int getMoves(RadikalChessState state, int sq, int[] buffer, int count) {
+		long own = state.getPieces(getOwner());
+		long occupied = state.getOccupied();
+		int[] distance = RadikalChessGeometry.DISTANCE[RadikalChessUtil.getEnemyKingSquare(state, getOwner())];
 
-		for (int i = x + 1; i < state.getBoard().length; i++) {
-			if (RadikalChessUtil.isAlly(state, i, y, getOwner())) {
-				break;
-			}
+		for (int direction : RadikalChessGeometry.QUEEN_DIRECTIONS) {
+			for (int to : RadikalChessGeometry.RAYS[sq][direction]) {
+				long bit = 1L << to;
 
-			if (!RadikalChessUtil.foundCollisionAll(state, i, y)) {
-				if (RadikalChessUtil.kingRange(state, x, y, i, y, getOwner())) {
-					actionList.add(new RadikalChessAction(x, y, i, y, false));	
-				} else if (depth) {
-					List<RadikalChessAction> testChechmate = retrieveActionList(state, i, y, false);
+				if ((own & bit) != 0) break;
 
-					for (RadikalChessAction action : testChechmate) {
-						if (action.isCapture() && state.getBoard()[action.getX1()][action.getY1()] instanceof King) {
-							actionList.add(new RadikalChessAction(x, y, i, y, false));
-							break;
-						}
+				if ((occupied & bit) == 0) {
+					if (distance[to] < distance[sq] || attacksKing(state, to, occupied)) {
+						buffer[count++] = RadikalChessAction.encode(sq, to, false);
 					}
+					continue;
 				}
 
-				continue;
-			}
-
-			if (RadikalChessUtil.isEnemy(state, i, y, getOwner())) {
-				actionList.add(new RadikalChessAction(x, y, i, y, true));
+				buffer[count++] = RadikalChessAction.encode(sq, to, true);
 				break;
 			}
 		}
-		for (int i = x - 1; i >= 0; i--) {
-			if (RadikalChessUtil.isAlly(state, i, y, getOwner())) {
-				break;
-			}
-
-			if (!RadikalChessUtil.foundCollisionAll(state, i, y)) {
-				if (RadikalChessUtil.kingRange(state, x, y, i, y, getOwner())) {
-					actionList.add(new RadikalChessAction(x, y, i, y, false));	
-				} else if (depth) {
-					List<RadikalChessAction> testChechmate = retrieveActionList(state, i, y, false);
-
-					for (RadikalChessAction action : testChechmate) {
-						if (action.isCapture() && state.getBoard()[action.getX1()][action.getY1()] instanceof King) {
-							actionList.add(new RadikalChessAction(x, y, i, y, false));
-							break;
-						}
-					}
-				}
 
-				continue;
-			}
-			
-			if (RadikalChessUtil.isEnemy(state, i, y, getOwner())) {
-				actionList.add(new RadikalChessAction(x, y, i, y, true));
-				break;
-			}
-		}	
-
-		return actionList;
+		return count;
 	}
 
-	/**
-	 * @return Movimientos como una torre, eje Y.
-	 */
-	private List<RadikalChessAction> yAxisActionList(RadikalChessState state, int x, int y, boolean depth) {
-		List<RadikalChessAction> actionList = new ArrayList<RadikalChessAction>();
-
-		for (int j = y + 1; j < state.getBoard()[0].length; j++) {
-			if (RadikalChessUtil.isAlly(state, x, j, getOwner())) {
-				break;
-			}
-
-			if (!RadikalChessUtil.foundCollisionAll(state, x, j)) {
-				if (RadikalChessUtil.kingRange(state, x, y, x, j, getOwner())) {
-					actionList.add(new RadikalChessAction(x, y, x, j, false));	
-				} else if (depth) {
-					List<RadikalChessAction> testChechmate = retrieveActionList(state, x, j, false);
-
-					for (RadikalChessAction action : testChechmate) {
-						if (action.isCapture() && state.getBoard()[action.getX1()][action.getY1()] instanceof King) {
-							actionList.add(new RadikalChessAction(x, y, x, j, false));
-							break;
-						}
-					}
-				}
-
-				continue;
-			}
-
-			if (RadikalChessUtil.isEnemy(state, x, j, getOwner())) {
-				actionList.add(new RadikalChessAction(x, y, x, j, true));
-				break;
-			}
-		}
-		for (int j = y - 1; j >= 0; j--) {
-			if (RadikalChessUtil.isAlly(state, x, j, getOwner())) {
-				break;
-			}
-
-			if (!RadikalChessUtil.foundCollisionAll(state, x, j)) {
-				if (RadikalChessUtil.kingRange(state, x, y, x, j, getOwner())) {
-					actionList.add(new RadikalChessAction(x, y, x, j, false));	
-				} else if (depth) {
-					List<RadikalChessAction> testChechmate = retrieveActionList(state, x, j, false);
-
-					for (RadikalChessAction action : testChechmate) {
-						if (action.isCapture() && state.getBoard()[action.getX1()][action.getY1()] instanceof King) {
-							actionList.add(new RadikalChessAction(x, y, x, j, false));
-							break;
-						}
-					}
-				}
-
-				continue;
-			}
-
-			if (RadikalChessUtil.isEnemy(state, x, j, getOwner())) {
-				actionList.add(new RadikalChessAction(x, y, x, j, true));
-				break;
-			}
-		}	
-		return actionList;
-	}
-
-	/**
-	 * @return Movimientos como un alfil, eje inferior.
-	 */
-	private List<RadikalChessAction> lowerAxisActionList(RadikalChessState state, int x, int y, boolean depth) {
-		List<RadikalChessAction> actionList = new ArrayList<RadikalChessAction>();
+	@Override
+	public long getTargets(RadikalChessState state, int sq) {
+		long own = state.getPieces(getOwner());
+		long occupied = state.getOccupied();
+		int[] distance = RadikalChessGeometry.DISTANCE[RadikalChessUtil.getEnemyKingSquare(state, getOwner())];
+		long targets = 0L;
 
-		for (int j = y + 1; j < state.getBoard()[0].length; j++) {
-			if (RadikalChessUtil.isAlly(state, x + (j - y), j, getOwner())) {
-				break;
-			}
+		for (int direction : RadikalChessGeometry.QUEEN_DIRECTIONS) {
+			for (int to : RadikalChessGeometry.RAYS[sq][direction]) {
+				long bit = 1L << to;
 
-			if (!RadikalChessUtil.foundCollisionAll(state, x + (j - y), j)) {
-				if (RadikalChessUtil.kingRange(state, x, y, x + (j - y), j, getOwner())) {
-					actionList.add(new RadikalChessAction(x, y, x + (j - y), j, false));	
-				} else if (depth) {
-					List<RadikalChessAction> testChechmate = retrieveActionList(state, x + (j - y), j, false);
+				if ((own & bit) != 0) break;
 
-					for (RadikalChessAction action : testChechmate) {
-						if (action.isCapture() && state.getBoard()[action.getX1()][action.getY1()] instanceof King) {
-							actionList.add(new RadikalChessAction(x, y, x + (j - y), j, false));
-							break;
-						}
-					}
+				if ((occupied & bit) == 0) {
+					if (distance[to] < distance[sq] || attacksKing(state, to, occupied)) targets |= bit;
+					continue;
 				}
 
-				continue;
-			}
-
-			if (RadikalChessUtil.isEnemy(state, x + (j - y), j, getOwner())) {
-				actionList.add(new RadikalChessAction(x, y, x + (j - y), j, true));
+				targets |= bit;
 				break;
 			}
 		}
-		for (int j = y + 1; j < state.getBoard()[0].length; j++) {
-			if (RadikalChessUtil.isAlly(state, x - (j - y), j, getOwner())) {
-				break;
-			}
-
-			if (!RadikalChessUtil.foundCollisionAll(state, x - (j - y), j)) {
-				if (RadikalChessUtil.kingRange(state, x, y, x - (j - y), j, getOwner())) {
-					actionList.add(new RadikalChessAction(x, y, x - (j - y), j, false));	
-				} else if (depth) {
-					List<RadikalChessAction> testChechmate = retrieveActionList(state, x - (j - y), j, false);
 
-					for (RadikalChessAction action : testChechmate) {
-						if (action.isCapture() && state.getBoard()[action.getX1()][action.getY1()] instanceof King) {
-							actionList.add(new RadikalChessAction(x, y, x - (j - y), j, false));
-							break;
-						}
-					}
-				}
-
-				continue;
-			}
-
-			if (RadikalChessUtil.isEnemy(state, x - (j - y), j, getOwner())) {
-				actionList.add(new RadikalChessAction(x, y, x - (j - y), j, true));
-				break;
-			}
-		}
-
-		return actionList;
+		return targets;
 	}
 
 	/**
-	 * @return Movimientos como un alfil, eje superior.
+	 * Comprueba si desde la casilla dada la reina podría capturar al rey
+	 * enemigo, con el tablero tal y como está (la reina sigue en su casilla).
+	 * 
+	 * @return Si la primera ficha de algún rayo es el rey enemigo.
 	 */
-	private List<RadikalChessAction> upperAxisActionList(RadikalChessState state, int x, int y, boolean depth) {
-		List<RadikalChessAction> actionList = new ArrayList<RadikalChessAction>();
-		for (int j = y - 1; j >= 0; j--) {
-			if (RadikalChessUtil.isAlly(state, x + (y - j), j, getOwner())) {
-				break;
-			}
+	private boolean attacksKing(RadikalChessState state, int sq, long occupied) {
+		int king = state.getKingSquare(RadikalChessUtil.otherPlayer(getOwner()));
 
-			if (!RadikalChessUtil.foundCollisionAll(state, x + (y - j), j)) {
-				if (RadikalChessUtil.kingRange(state, x, y, x + (y - j), j, getOwner())) {
-					actionList.add(new RadikalChessAction(x, y, x + (y - j), j, false));	
-				} else if (depth) {
-					List<RadikalChessAction> testChechmate = retrieveActionList(state, x + (y - j), j, false);
+		for (int direction : RadikalChessGeometry.QUEEN_DIRECTIONS) {
+			for (int to : RadikalChessGeometry.RAYS[sq][direction]) {
+				long bit = 1L << to;
 
-					for (RadikalChessAction action : testChechmate) {
-						if (action.isCapture() && state.getBoard()[action.getX1()][action.getY1()] instanceof King) {
-							actionList.add(new RadikalChessAction(x, y, x + (y - j), j, false));
-							break;
-						}
-					}
-				}
-
-				continue;
-			}
+				if ((occupied & bit) == 0) continue;
+				if (to == king) return true;
 
-			if (RadikalChessUtil.isEnemy(state, x + (y - j), j, getOwner())) {
-				actionList.add(new RadikalChessAction(x, y, x + (y - j), j, true));
 				break;
 			}
 		}
-		for (int j = y - 1; j >= 0; j--) {
-			if (RadikalChessUtil.isAlly(state, x - (y - j), j, getOwner())) {
-				break;
-			}
 
-			if (!RadikalChessUtil.foundCollisionAll(state, x - (y - j), j)) {
-				if (RadikalChessUtil.kingRange(state, x, y, x - (y - j), j, getOwner())) {
-					actionList.add(new RadikalChessAction(x, y, x - (y - j), j, false));	
-				} else if (depth) {
-					List<RadikalChessAction> testChechmate = retrieveActionList(state, x - (y - j), j, false);
-
-					for (RadikalChessAction action : testChechmate) {
-						if (action.isCapture() && state.getBoard()[action.getX1()][action.getY1()] instanceof King) {
-							actionList.add(new RadikalChessAction(x, y, x - (y - j), j, false));
-							break;
-						}
-					}
-				}
-
-				continue;
-			}
-
-			if (RadikalChessUtil.isEnemy(state, x - (y - j), j, getOwner())) {
-				actionList.add(new RadikalChessAction(x, y, x - (y - j), j, true));
-				break;
-			}
-		}
-		return actionList;
+		return false;
 	}
-
 }
\ No newline at end of file
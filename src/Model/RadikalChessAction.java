@@ -9,6 +9,11 @@ package Model;
  */
 public class RadikalChessAction {
 
+	/**
+	 * Movimiento codificado nulo (de la casilla 0 a la casilla 0).
+	 */
+	public static final int NO_MOVE = 0;
+
 	private final int x0;
 	private final int y0;
 	private final int x1;
@@ -42,6 +47,47 @@ public class RadikalChessAction {
 	public boolean isCapture() {
 		return isCapture;
 	}
+
+	/**
+	 * @return Acción codificada en un entero: origen, destino y captura.
+	 */
+	public int encode() {
+		return encode(RadikalChessState.square(x0, y0), RadikalChessState.square(x1, y1), isCapture);
+	}
+
+	/**
+	 * @return Acción codificada a partir de sus casillas.
+	 */
+	public static int encode(int from, int to, boolean isCapture) {
+		return from | (to << 5) | (isCapture ? 1 << 10 : 0);
+	}
+
+	/**
+	 * @param from Casilla de origen.
+	 * @param to Casilla de destino.
+	 * @param isCapture Si es una captura.
+	 * @return La acción entre las dos casillas.
+	 */
+	public static RadikalChessAction fromSquares(int from, int to, boolean isCapture) {
+		return new RadikalChessAction(RadikalChessState.fileOf(from), RadikalChessState.rankOf(from), 
+				RadikalChessState.fileOf(to), RadikalChessState.rankOf(to), isCapture);
+	}
+
+	/**
+	 * @param move Acción codificada con encode().
+	 * @return La acción correspondiente.
+	 */
+	public static RadikalChessAction decode(int move) {
+		return fromSquares(move & 31, (move >>> 5) & 31, isCapture(move));
+	}
+
+	/**
+	 * @param move Acción codificada con encode().
+	 * @return Si la acción es una captura, sin decodificarla.
+	 */
+	public static boolean isCapture(int move) {
+		return (move & (1 << 10)) != 0;
+	}
 	
 	@Override
 	public String toString() {
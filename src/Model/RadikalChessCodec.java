@@ -0,0 +1,106 @@
+package Model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Codificación binaria de tamaño fijo de una posición: un nibble por
+ * casilla, en el orden de RadikalChessState.square (casilla par en el
+ * nibble bajo), y un byte con el turno; 13 bytes en total.
+ *
+ * Nibble: 0 si la casilla está vacía; si no, tipo + 1 en los tres bits
+ * bajos y el bit 3 para las negras. Turno: 0 blancas, 1 negras.
+ *
+ * La utilidad no se guarda; se calcula de nuevo al evaluar.
+ *
+ * @author Quique
+ */
+public class RadikalChessCodec {
+
+	/**
+	 * Bytes de una posición codificada.
+	 */
+	public static final int SIZE = RadikalChessState.SQUARES / 2 + 1;
+
+	private static final int BLACK = 8;
+
+	/**
+	 * Escribe la posición en la posición actual del buffer.
+	 */
+	public static void encode(RadikalChessState state, ByteBuffer buffer) {
+		for (int sq = 0; sq < RadikalChessState.SQUARES; sq += 2) {
+			buffer.put((byte) (nibble(state, sq) | nibble(state, sq + 1) << 4));
+		}
+
+		buffer.put((byte) state.getPlayer().ordinal());
+	}
+
+	private static int nibble(RadikalChessState state, int sq) {
+		int type = state.getType(sq);
+
+		if (type < 0) return 0;
+
+		return (type + 1) | ((state.getOwner(sq) == RadikalChessPlayer.BLACK) ? BLACK : 0);
+	}
+
+	/**
+	 * Lee una posición de la posición actual del buffer sobre un estado
+	 * existente, sin crear objetos.
+	 *
+	 * @throws IllegalArgumentException Si los bytes no son una posición.
+	 */
+	public static void decode(ByteBuffer buffer, RadikalChessState state) {
+		int start = buffer.position();
+
+		buffer.position(start + SIZE - 1);
+		int side = buffer.get();
+		buffer.position(start);
+
+		if (side != 0 && side != 1) {
+			throw new IllegalArgumentException("Malformed position");
+		}
+
+		state.setPlayer(side == 0 ? RadikalChessPlayer.WHITE : RadikalChessPlayer.BLACK);
+		state.clear();
+
+		for (int sq = 0; sq < RadikalChessState.SQUARES; sq += 2) {
+			int b = buffer.get() & 0xFF;
+
+			put(state, sq, b & 15);
+			put(state, sq + 1, b >>> 4);
+		}
+
+		buffer.get();
+	}
+
+	private static void put(RadikalChessState state, int sq, int nibble) {
+		if (nibble == 0) return;
+
+		int type = (nibble & 7) - 1;
+
+		if (type < 0 || type >= RadikalChessState.TYPES) {
+			throw new IllegalArgumentException("Malformed position");
+		}
+
+		state.putPiece(type, nibble >>> 3, sq);
+	}
+
+	/**
+	 * @return La posición codificada.
+	 */
+	public static byte[] toBytes(RadikalChessState state) {
+		ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+		encode(state, buffer);
+
+		return buffer.array();
+	}
+
+	/**
+	 * @return La posición de los bytes dados.
+	 */
+	public static RadikalChessState fromBytes(byte[] bytes) {
+		RadikalChessState state = new RadikalChessState();
+		decode(ByteBuffer.wrap(bytes), state);
+
+		return state;
+	}
+}
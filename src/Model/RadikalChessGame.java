@@ -19,6 +19,11 @@ public class RadikalChessGame implements Game<RadikalChessState, RadikalChessAct
 	private RadikalChessState initialState;
 	private double[] heuristicsw = new double[]{1., 1., 1., 1., 1.};
 
+	/**
+	 * Cota de movimientos de un jugador en una posición (tamaño de los buffers).
+	 */
+	public static final int MAX_MOVES = 128;
+
 	public RadikalChessGame() {
 		initialState = new RadikalChessState();
 	}
@@ -27,6 +32,14 @@ public class RadikalChessGame implements Game<RadikalChessState, RadikalChessAct
 		this.initialState = initialState;
 	}
 
+	/**
+	 * @param heuristicsw Pesos usados por la IA (se copian).
+	 */
+	public RadikalChessGame(double[] heuristicsw) {
+		this();
+		setHeuristicsw(heuristicsw);
+	}
+
 	@Override
 	public RadikalChessState getInitialState() {
 		return initialState;
@@ -42,62 +55,61 @@ public class RadikalChessGame implements Game<RadikalChessState, RadikalChessAct
 		return state.getPlayer();
 	}
 
+	/**
+	 * Adaptador de getMoves a la interfaz de AIMA.
+	 */
 	@Override
 	public List<RadikalChessAction> getActions(RadikalChessState state) {
-		ChessPiece[][] board = state.getBoard();
-		RadikalChessPlayer player = state.getPlayer();
-		List<RadikalChessAction> actions = new ArrayList<>();
-
-		for (int i = 0; i < board.length; i++) {
-			for (int j = 0; j < board[0].length; j++) {
-				if (board[i][j] != null && board[i][j].getOwner() == player) {
-					actions.addAll(board[i][j].getAction(state, i, j));
-				}
-			}
+		int[] buffer = ChessPiece.scratch();
+		int count = getMoves(state, buffer);
+		List<RadikalChessAction> actions = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			actions.add(RadikalChessAction.decode(buffer[i]));
 		}
 
 		return actions;
 	}
 
+	/**
+	 * Genera los movimientos del jugador que mueve como enteros
+	 * (RadikalChessAction.encode), sin crear objetos.
+	 * 
+	 * @param state Un estado dado.
+	 * @param buffer Buffer del llamante, de al menos MAX_MOVES posiciones.
+	 * @return Número de movimientos escritos.
+	 */
+	public int getMoves(RadikalChessState state, int[] buffer) {
+		int count = 0;
+		long pieces = state.getPieces(state.getPlayer());
+
+		while (pieces != 0) {
+			int sq = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			count = state.getPiece(sq).getMoves(state, sq, buffer, count);
+		}
+
+		return count;
+	}
+
 	@Override
 	public RadikalChessState getResult(RadikalChessState state, RadikalChessAction action) {
 		RadikalChessState result = state.clone();
-		ChessPiece[][] board = result.getBoard();
 
-		board[action.getX1()][action.getY1()] = board[action.getX0()][action.getY0()];
-		board[action.getX0()][action.getY0()] = null;
+		result.movePiece(action.getX0(), action.getY0(), action.getX1(), action.getY1());
 		result.newQueen();
 		result.setPlayer((state.getPlayer() == RadikalChessPlayer.BLACK) ?
 				RadikalChessPlayer.WHITE :
 					RadikalChessPlayer.BLACK);
-
-		double utility = 0.;
-
-		utility += result.basicLogic() * heuristicsw[0];
-		utility += result.heuristicOne() * heuristicsw[1];
-		utility += result.heuristicTwo() * heuristicsw[2];
-		utility += result.heuristicThree() * heuristicsw[3];
-		utility += result.heuristicFour() * heuristicsw[4];
-
-		result.setUtility(utility);
 		
 		return result;
 	}
 
 	@Override
 	public boolean isTerminal(RadikalChessState state) {
-		ChessPiece[][] board = state.getBoard();
-		int kingCount = 0;
-
-		for (int i = 0; i < board.length; i++) {
-			for (int j = 0; j < board[0].length; j++) {
-				if (board[i][j] != null && board[i][j] instanceof King) {
-					if (++kingCount == 2) return !canMove(state);
-				}
-			}
-		}
+		if (!state.hasBothKings()) return true;
 
-		return true;
+		return !canMove(state);
 	}
 
 	/**
@@ -105,23 +117,31 @@ public class RadikalChessGame implements Game<RadikalChessState, RadikalChessAct
 	 * @return Si existen movimientos para un jugador dado un estado.
 	 */
 	private boolean canMove(RadikalChessState state) {
-		ChessPiece[][] board = state.getBoard();
-
-		for (int i = 0; i < board.length; i++) {
-			for (int j = 0; j < board[0].length; j++) {
-				if (board[i][j] != null && 
-						board[i][j].getOwner() == state.getPlayer() && 
-						board[i][j].getAction(state, i, j).size() > 0) {
-					return true;
-				}
+		int[] buffer = ChessPiece.scratch();
+		long pieces = state.getPieces(state.getPlayer());
+
+		while (pieces != 0) {
+			int sq = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+
+			if (state.getPiece(sq).getMoves(state, sq, buffer, 0) > 0) {
+				return true;
 			}
 		}
 
 		return false;
 	}
 
+	/**
+	 * La utilidad se calcula la primera vez que se pide y queda guardada
+	 * en el estado, así solo se evalúan los nodos que la búsqueda usa.
+	 */
 	@Override
 	public double getUtility(RadikalChessState state, RadikalChessPlayer player) {
+		if (!state.hasUtility()) {
+			state.setUtility(evaluate(state));
+		}
+
 		if (player == state.getPlayer())
 			return state.getUtility();
 		else
@@ -129,17 +149,39 @@ public class RadikalChessGame implements Game<RadikalChessState, RadikalChessAct
 	}
 
 	/**
-	 * @return Pesos usados por la IA, Getter.
+	 * Suma ponderada de las heurísticas para el jugador que mueve.
+	 * Los términos con peso nulo no se calculan.
+	 * 
+	 * @param state Un estado dado.
+	 * @return Utilidad del estado.
+	 */
+	public double evaluate(RadikalChessState state) {
+		double utility = 0.;
+
+		if (heuristicsw[0] != 0.) utility += state.basicLogic() * heuristicsw[0];
+		if (heuristicsw[1] != 0.) utility += state.heuristicOne() * heuristicsw[1];
+		if (heuristicsw[2] != 0.) utility += state.heuristicTwo() * heuristicsw[2];
+		if (heuristicsw[3] != 0.) utility += state.heuristicThree() * heuristicsw[3];
+		if (heuristicsw[4] != 0.) utility += state.heuristicFour() * heuristicsw[4];
+
+		return utility;
+	}
+
+	/**
+	 * @return Copia de los pesos usados por la IA, Getter.
 	 */
 	public double[] getHeuristicsw() {
-		return heuristicsw;
+		return heuristicsw.clone();
 	}
 
 	/**
+	 * Los pesos se copian: modificar después el array recibido no cambia
+	 * la evaluación del juego.
+	 * 
 	 * @param heuristicsw Pesos usados por la IA, Setter.
 	 */
 	public void setHeuristicsw(double[] heuristicsw) {
-		this.heuristicsw = heuristicsw;
+		this.heuristicsw = heuristicsw.clone();
 	}
 	
 }
\ No newline at end of file
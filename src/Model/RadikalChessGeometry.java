@@ -0,0 +1,112 @@
+package Model;
+
+/**
+ * Tablas precalculadas de la geometría del tablero de 4x6, construidas una
+ * sola vez al cargar la clase. Con ellas la generación de movimientos recorre
+ * listas de casillas ya válidas, sin comprobar límites en cada paso.
+ *
+ * Las casillas son índices de RadikalChessState.square(x, y).
+ *
+ * @author Quique
+ */
+public class RadikalChessGeometry {
+
+	/**
+	 * Direcciones de los rayos, en el orden en que las fichas generan sus
+	 * movimientos: eje X (+x, -x), eje Y (+y, -y), diagonales superiores
+	 * (+x-y, -x-y) y diagonales inferiores (+x+y, -x+y).
+	 */
+	private static final int[][] DIRECTIONS = {
+		{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, -1}, {-1, -1}, {1, 1}, {-1, 1}
+	};
+
+	public static final int[] ROOK_DIRECTIONS = {0, 1, 2, 3};
+	public static final int[] BISHOP_DIRECTIONS = {4, 5, 6, 7};
+	public static final int[] QUEEN_DIRECTIONS = {0, 1, 2, 3, 4, 5, 6, 7};
+
+	/**
+	 * Casillas de cada rayo, [casilla][dirección], de la más cercana a la más lejana.
+	 */
+	public static final int[][][] RAYS = new int[RadikalChessState.SQUARES][DIRECTIONS.length][];
+
+	/**
+	 * Casillas vecinas (movimientos del rey), en el orden de King.
+	 */
+	public static final int[][] KING_STEPS = new int[RadikalChessState.SQUARES][];
+
+	/**
+	 * Avance del peón, [jugador][casilla]; -1 si se sale del tablero.
+	 */
+	public static final int[][] PAWN_PUSH = new int[2][RadikalChessState.SQUARES];
+
+	/**
+	 * Capturas del peón, [jugador][casilla], primero x+1 y luego x-1.
+	 */
+	public static final int[][][] PAWN_CAPTURES = new int[2][RadikalChessState.SQUARES][];
+
+	/**
+	 * Distancia euclídea al cuadrado entre dos casillas.
+	 */
+	public static final int[][] DISTANCE = new int[RadikalChessState.SQUARES][RadikalChessState.SQUARES];
+
+	static {
+		final int[][] kingOrder = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+		for (int sq = 0; sq < RadikalChessState.SQUARES; sq++) {
+			int x = RadikalChessState.fileOf(sq);
+			int y = RadikalChessState.rankOf(sq);
+
+			for (int d = 0; d < DIRECTIONS.length; d++) {
+				int length = 0;
+
+				while (inBounds(x + DIRECTIONS[d][0] * (length + 1), y + DIRECTIONS[d][1] * (length + 1))) {
+					length++;
+				}
+
+				RAYS[sq][d] = new int[length];
+
+				for (int k = 0; k < length; k++) {
+					RAYS[sq][d][k] = RadikalChessState.square(x + DIRECTIONS[d][0] * (k + 1), y + DIRECTIONS[d][1] * (k + 1));
+				}
+			}
+
+			KING_STEPS[sq] = steps(x, y, kingOrder);
+
+			// Las blancas avanzan hacia y = 0, las negras hacia y = HEIGHT - 1.
+			PAWN_PUSH[RadikalChessPlayer.WHITE.ordinal()][sq] = inBounds(x, y - 1) ? RadikalChessState.square(x, y - 1) : -1;
+			PAWN_PUSH[RadikalChessPlayer.BLACK.ordinal()][sq] = inBounds(x, y + 1) ? RadikalChessState.square(x, y + 1) : -1;
+			PAWN_CAPTURES[RadikalChessPlayer.WHITE.ordinal()][sq] = steps(x, y, new int[][]{{1, -1}, {-1, -1}});
+			PAWN_CAPTURES[RadikalChessPlayer.BLACK.ordinal()][sq] = steps(x, y, new int[][]{{1, 1}, {-1, 1}});
+
+			for (int to = 0; to < RadikalChessState.SQUARES; to++) {
+				DISTANCE[sq][to] = RadikalChessUtil.euclidea(x, y, RadikalChessState.fileOf(to), RadikalChessState.rankOf(to));
+			}
+		}
+	}
+
+	/**
+	 * @return Casillas dentro del tablero de entre los desplazamientos dados.
+	 */
+	private static int[] steps(int x, int y, int[][] offsets) {
+		int count = 0;
+
+		for (int[] offset : offsets) {
+			if (inBounds(x + offset[0], y + offset[1])) count++;
+		}
+
+		int[] steps = new int[count];
+		count = 0;
+
+		for (int[] offset : offsets) {
+			if (inBounds(x + offset[0], y + offset[1])) {
+				steps[count++] = RadikalChessState.square(x + offset[0], y + offset[1]);
+			}
+		}
+
+		return steps;
+	}
+
+	private static boolean inBounds(int x, int y) {
+		return x >= 0 && y >= 0 && x < RadikalChessState.WIDTH && y < RadikalChessState.HEIGHT;
+	}
+}
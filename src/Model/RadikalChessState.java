@@ -1,9 +1,8 @@
 package Model;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Random;
 
 /**
  * Clase que representa un estado. Implementa Cloneable y Serializable 
@@ -14,15 +13,91 @@ import java.util.List;
 public class RadikalChessState implements Cloneable, Serializable {
 
 	private static final long serialVersionUID = 2748054592927672122L;
-	private ChessPiece[][] board;
-	private double utility = 0.;
+
+	/**
+	 * Dimensiones del tablero. Una casilla (x, y) se corresponde con el bit
+	 * x * HEIGHT + y, de modo que recorrer los bits de menor a mayor equivale
+	 * a recorrer la matriz por columnas (el orden original de generación).
+	 */
+	public static final int WIDTH = 4;
+	public static final int HEIGHT = 6;
+	public static final int SQUARES = WIDTH * HEIGHT;
+
+	/**
+	 * Tipos de ficha, índices de las máscaras de cada tipo.
+	 */
+	public static final int KING = 0;
+	public static final int QUEEN = 1;
+	public static final int ROOK = 2;
+	public static final int BISHOP = 3;
+	public static final int PAWN = 4;
+	public static final int TYPES = 5;
+
+	/**
+	 * Instancias únicas de cada ficha por jugador, [jugador][tipo].
+	 */
+	private static final ChessPiece[][] PIECES = {
+		{new King(RadikalChessPlayer.WHITE), new Queen(RadikalChessPlayer.WHITE), new Rook(RadikalChessPlayer.WHITE), 
+			new Bishop(RadikalChessPlayer.WHITE), new Pawn(RadikalChessPlayer.WHITE)},
+		{new King(RadikalChessPlayer.BLACK), new Queen(RadikalChessPlayer.BLACK), new Rook(RadikalChessPlayer.BLACK), 
+			new Bishop(RadikalChessPlayer.BLACK), new Pawn(RadikalChessPlayer.BLACK)}
+	};
+
+	/**
+	 * Claves Zobrist, [jugador * TYPES + tipo][casilla], más la clave del
+	 * turno de negras. La semilla es fija para que las claves sean las
+	 * mismas en cada ejecución.
+	 */
+	private static final long[][] ZOBRIST = new long[2 * TYPES][SQUARES];
+	private static final long ZOBRIST_BLACK;
+
+	static {
+		Random random = new Random(0x52616469L);
+
+		for (int i = 0; i < ZOBRIST.length; i++) {
+			for (int sq = 0; sq < SQUARES; sq++) {
+				ZOBRIST[i][sq] = random.nextLong();
+			}
+		}
+
+		ZOBRIST_BLACK = random.nextLong();
+	}
+
+	/**
+	 * Máscaras del tablero: una por tipo de ficha y una por jugador
+	 * (índices TYPES + ordinal del jugador).
+	 */
+	private long[] masks = new long[TYPES + 2];
+	private long hash = 0L;
+
+	/**
+	 * Material de cada jugador, [jugador * 2 + turno]: el valor del peón
+	 * depende de quién mueve, así que se lleva la suma para cada turno.
+	 * Se mantiene al colocar, quitar y mover fichas (también al capturar,
+	 * promocionar y deshacer), de modo que heuristicOne no recorre el tablero.
+	 */
+	private int[] material = new int[4];
+	private int whiteKing = -1;
+	private int blackKing = -1;
+	private double utility = Double.NaN;
+
+	/**
+	 * Mapas de alcance, [jugador]: casillas a las que llega alguna ficha del
+	 * jugador, su número de movimientos y cuántos de ellos van a casillas
+	 * que el rival no alcanza. Se calculan una vez por posición (véase
+	 * computeReach) y se descartan al cambiar el tablero; el turno no les
+	 * afecta.
+	 */
+	private transient boolean reached = false;
+	private transient long whiteReach, blackReach;
+	private transient int whiteMobility, blackMobility;
+	private transient int whiteSafe, blackSafe;
 	private RadikalChessPlayer player = RadikalChessPlayer.WHITE;
 
 	/**
-	 * Constructor de estado, permite modificación de tamaño del tablero.
+	 * Constructor de estado, tablero clásico de 4x6.
 	 */
 	public RadikalChessState() {
-		board = new ChessPiece[4][6];
 		fillClassic();
 	}
 
@@ -30,38 +105,322 @@ public class RadikalChessState implements Cloneable, Serializable {
 	 * Rellena el tablero con la configuración especificada.
 	 */
 	private void fillClassic() {
-		Pawn blackPawn = new Pawn(RadikalChessPlayer.BLACK);
-		Pawn whitePawn = new Pawn(RadikalChessPlayer.WHITE);
-
-		board[3][5] = new King(RadikalChessPlayer.WHITE);
-		board[2][5] = new Queen(RadikalChessPlayer.WHITE);
-		board[1][5] = new Bishop(RadikalChessPlayer.WHITE);
-		board[0][5] = new Rook(RadikalChessPlayer.WHITE);
-		board[3][4] = whitePawn;
-		board[2][4] = whitePawn;
-		board[1][4] = whitePawn;
-		board[0][4] = whitePawn;
-
-		board[0][0] = new King(RadikalChessPlayer.BLACK);
-		board[1][0] = new Queen(RadikalChessPlayer.BLACK);
-		board[2][0] = new Bishop(RadikalChessPlayer.BLACK);
-		board[3][0] = new Rook(RadikalChessPlayer.BLACK);
-		board[0][1] = blackPawn;
-		board[1][1] = blackPawn;
-		board[2][1] = blackPawn;
-		board[3][1] = blackPawn;
+		putPiece(PIECES[RadikalChessPlayer.WHITE.ordinal()][KING], 3, 5);
+		putPiece(PIECES[RadikalChessPlayer.WHITE.ordinal()][QUEEN], 2, 5);
+		putPiece(PIECES[RadikalChessPlayer.WHITE.ordinal()][BISHOP], 1, 5);
+		putPiece(PIECES[RadikalChessPlayer.WHITE.ordinal()][ROOK], 0, 5);
+		putPiece(PIECES[RadikalChessPlayer.WHITE.ordinal()][PAWN], 3, 4);
+		putPiece(PIECES[RadikalChessPlayer.WHITE.ordinal()][PAWN], 2, 4);
+		putPiece(PIECES[RadikalChessPlayer.WHITE.ordinal()][PAWN], 1, 4);
+		putPiece(PIECES[RadikalChessPlayer.WHITE.ordinal()][PAWN], 0, 4);
+
+		putPiece(PIECES[RadikalChessPlayer.BLACK.ordinal()][KING], 0, 0);
+		putPiece(PIECES[RadikalChessPlayer.BLACK.ordinal()][QUEEN], 1, 0);
+		putPiece(PIECES[RadikalChessPlayer.BLACK.ordinal()][BISHOP], 2, 0);
+		putPiece(PIECES[RadikalChessPlayer.BLACK.ordinal()][ROOK], 3, 0);
+		putPiece(PIECES[RadikalChessPlayer.BLACK.ordinal()][PAWN], 0, 1);
+		putPiece(PIECES[RadikalChessPlayer.BLACK.ordinal()][PAWN], 1, 1);
+		putPiece(PIECES[RadikalChessPlayer.BLACK.ordinal()][PAWN], 2, 1);
+		putPiece(PIECES[RadikalChessPlayer.BLACK.ordinal()][PAWN], 3, 1);
 	}
 
 	public RadikalChessState(ChessPiece[][] board) {
-		this.board = board;
+		setBoard(board);
 	}
 
+	/**
+	 * El tablero ya no se guarda como matriz; se construye una copia a partir
+	 * de las máscaras. Modificar la matriz devuelta no altera el estado.
+	 * 
+	 * @return Vista en matriz del tablero.
+	 */
 	public ChessPiece[][] getBoard() {
+		ChessPiece[][] board = new ChessPiece[WIDTH][HEIGHT];
+		long occupied = getOccupied();
+
+		while (occupied != 0) {
+			int sq = Long.numberOfTrailingZeros(occupied);
+			occupied &= occupied - 1;
+			board[fileOf(sq)][rankOf(sq)] = getPiece(sq);
+		}
+
 		return board;
 	}
 
 	public void setBoard(ChessPiece[][] board) {
-		this.board = board;
+		masks = new long[TYPES + 2];
+		material = new int[4];
+		hash = (player == RadikalChessPlayer.BLACK) ? ZOBRIST_BLACK : 0L;
+		whiteKing = -1;
+		blackKing = -1;
+
+		for (int i = 0; i < WIDTH; i++) {
+			for (int j = 0; j < HEIGHT; j++) {
+				if (board[i][j] != null) {
+					putPiece(board[i][j], i, j);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return Índice de la casilla (x, y).
+	 */
+	public static int square(int x, int y) {
+		return x * HEIGHT + y;
+	}
+
+	/**
+	 * @return Coordenada X de la casilla.
+	 */
+	public static int fileOf(int sq) {
+		return sq / HEIGHT;
+	}
+
+	/**
+	 * @return Coordenada Y de la casilla.
+	 */
+	public static int rankOf(int sq) {
+		return sq % HEIGHT;
+	}
+
+	/**
+	 * @return Máscara con todas las casillas ocupadas.
+	 */
+	public long getOccupied() {
+		return masks[TYPES] | masks[TYPES + 1];
+	}
+
+	/**
+	 * @return Máscara con las fichas del jugador.
+	 */
+	public long getPieces(RadikalChessPlayer owner) {
+		return masks[TYPES + owner.ordinal()];
+	}
+
+	/**
+	 * @return Máscara con las fichas del tipo indicado, de ambos jugadores.
+	 */
+	public long getPieces(int type) {
+		return masks[type];
+	}
+
+	/**
+	 * @return Máscara con las fichas del tipo y jugador indicados.
+	 */
+	public long getPieces(int type, RadikalChessPlayer owner) {
+		return masks[type] & masks[TYPES + owner.ordinal()];
+	}
+
+	/**
+	 * @return Tipo de la ficha en la casilla, -1 si está vacía.
+	 */
+	public int getType(int sq) {
+		long bit = 1L << sq;
+
+		for (int type = 0; type < TYPES; type++) {
+			if ((masks[type] & bit) != 0) return type;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @return Dueño de la ficha en la casilla, null si está vacía.
+	 */
+	public RadikalChessPlayer getOwner(int sq) {
+		long bit = 1L << sq;
+
+		if ((masks[TYPES] & bit) != 0) return RadikalChessPlayer.WHITE;
+		if ((masks[TYPES + 1] & bit) != 0) return RadikalChessPlayer.BLACK;
+
+		return null;
+	}
+
+	/**
+	 * @return Ficha en la casilla, null si está vacía.
+	 */
+	public ChessPiece getPiece(int sq) {
+		RadikalChessPlayer owner = getOwner(sq);
+
+		return (owner == null) ? null : PIECES[owner.ordinal()][getType(sq)];
+	}
+
+	public ChessPiece getPiece(int x, int y) {
+		return getPiece(square(x, y));
+	}
+
+	/**
+	 * Coloca una ficha en la casilla, sustituyendo a la que hubiera.
+	 */
+	public void putPiece(ChessPiece piece, int x, int y) {
+		putPiece(piece.getType(), piece.getOwner().ordinal(), square(x, y));
+	}
+
+	/**
+	 * Vacía el tablero sin crear objetos; el turno se conserva.
+	 */
+	void clear() {
+		for (int i = 0; i < masks.length; i++) {
+			masks[i] = 0L;
+		}
+
+		for (int i = 0; i < material.length; i++) {
+			material[i] = 0;
+		}
+
+		hash = (player == RadikalChessPlayer.BLACK) ? ZOBRIST_BLACK : 0L;
+		whiteKing = -1;
+		blackKing = -1;
+		utility = Double.NaN;
+		reached = false;
+	}
+
+	void putPiece(int type, int owner, int sq) {
+		removePiece(sq);
+		utility = Double.NaN;
+		reached = false;
+		masks[type] |= 1L << sq;
+		masks[TYPES + owner] |= 1L << sq;
+		hash ^= ZOBRIST[owner * TYPES + type][sq];
+		addMaterial(type, owner, sq, 1);
+
+		if (type == KING) setKingSquare(owner, sq);
+	}
+
+	/**
+	 * Vacía la casilla indicada.
+	 */
+	private void removePiece(int sq) {
+		RadikalChessPlayer owner = getOwner(sq);
+
+		if (owner == null) return;
+
+		int type = getType(sq);
+
+		masks[type] &= ~(1L << sq);
+		masks[TYPES + owner.ordinal()] &= ~(1L << sq);
+		hash ^= ZOBRIST[owner.ordinal() * TYPES + type][sq];
+		addMaterial(type, owner.ordinal(), sq, -1);
+
+		if (type == KING) setKingSquare(owner.ordinal(), -1);
+	}
+
+	/**
+	 * Mueve la ficha de (x0, y0) a (x1, y1), capturando lo que hubiera en destino.
+	 */
+	public void movePiece(int x0, int y0, int x1, int y1) {
+		movePiece(square(x0, y0), square(x1, y1));
+	}
+
+	private void movePiece(int from, int to) {
+		int type = getType(from);
+		int owner = getOwner(from).ordinal();
+
+		removePiece(to);
+		utility = Double.NaN;
+		reached = false;
+		masks[type] ^= (1L << from) | (1L << to);
+		masks[TYPES + owner] ^= (1L << from) | (1L << to);
+		hash ^= ZOBRIST[owner * TYPES + type][from] ^ ZOBRIST[owner * TYPES + type][to];
+
+		if (type == PAWN) {
+			addMaterial(type, owner, from, -1);
+			addMaterial(type, owner, to, 1);
+		}
+
+		if (type == KING) setKingSquare(owner, to);
+	}
+
+	/**
+	 * Suma (sign = 1) o resta (sign = -1) el valor de la ficha al material
+	 * de su dueño, para ambos turnos.
+	 */
+	private void addMaterial(int type, int owner, int sq, int sign) {
+		material[owner * 2] += sign * valueOf(type, fileOf(sq), RadikalChessPlayer.WHITE);
+		material[owner * 2 + 1] += sign * valueOf(type, fileOf(sq), RadikalChessPlayer.BLACK);
+	}
+
+	private void setKingSquare(int owner, int sq) {
+		if (owner == RadikalChessPlayer.WHITE.ordinal()) {
+			whiteKing = sq;
+		} else {
+			blackKing = sq;
+		}
+	}
+
+	/**
+	 * Las casillas de los reyes se mantienen al mover, capturar y deshacer,
+	 * así que consultarlas no requiere recorrer el tablero.
+	 * 
+	 * @return Casilla del rey del jugador, -1 si ha sido capturado.
+	 */
+	public int getKingSquare(RadikalChessPlayer owner) {
+		return (owner == RadikalChessPlayer.WHITE) ? whiteKing : blackKing;
+	}
+
+	/**
+	 * @return Si los dos reyes siguen en el tablero.
+	 */
+	public boolean hasBothKings() {
+		return whiteKing >= 0 && blackKing >= 0;
+	}
+
+	/**
+	 * Hace el movimiento sobre este mismo estado (sin clonarlo): mueve la
+	 * ficha, promociona el peón si procede y cambia el turno. Todo lo
+	 * necesario para deshacerlo queda en el registro.
+	 * 
+	 * @param move Acción codificada (RadikalChessAction.encode).
+	 * @param undo Registro a rellenar.
+	 */
+	public void makeMove(int move, RadikalChessUndo undo) {
+		int from = move & 31;
+		int to = (move >>> 5) & 31;
+		RadikalChessPlayer captured = getOwner(to);
+
+		undo.capturedType = (captured == null) ? -1 : getType(to);
+		undo.capturedOwner = (captured == null) ? -1 : captured.ordinal();
+		undo.player = player;
+		undo.hash = hash;
+		undo.utility = utility;
+
+		movePiece(from, to);
+		undo.promotedSquare = promote();
+		undo.promotedOwner = (undo.promotedSquare < 0) ? -1 : player.ordinal();
+		setPlayer(RadikalChessUtil.otherPlayer(player));
+	}
+
+	/**
+	 * Deshace un movimiento hecho con makeMove.
+	 * 
+	 * @param move La misma acción codificada.
+	 * @param undo El registro que rellenó makeMove.
+	 */
+	public void unmakeMove(int move, RadikalChessUndo undo) {
+		int from = move & 31;
+		int to = (move >>> 5) & 31;
+
+		if (undo.promotedSquare >= 0) {
+			putPiece(PAWN, undo.promotedOwner, undo.promotedSquare);
+		}
+
+		movePiece(to, from);
+
+		if (undo.capturedType >= 0) {
+			putPiece(undo.capturedType, undo.capturedOwner, to);
+		}
+
+		player = undo.player;
+		hash = undo.hash;
+		utility = undo.utility;
+	}
+
+	/**
+	 * @return Clave Zobrist del estado (fichas y turno).
+	 */
+	public long getHash() {
+		return hash;
 	}
 
 	/**
@@ -86,7 +445,7 @@ public class RadikalChessState implements Cloneable, Serializable {
 
 		builder.append(blank + blank + tlcorner);
 
-		for (int i = 0; i < board.length-1; i++) {
+		for (int i = 0; i < WIDTH-1; i++) {
 			builder.append(hbar + hbar + hbar);
 			builder.append(tbar);
 		}
@@ -96,12 +455,12 @@ public class RadikalChessState implements Cloneable, Serializable {
 
 		builder.append("\n");
 
-		for (int j = 0; j < board[0].length; j++) {
-			builder.append((board[0].length - j) + blank + vbar);
+		for (int j = 0; j < HEIGHT; j++) {
+			builder.append((HEIGHT - j) + blank + vbar);
 
-			for (int i = 0; i < board.length; i++) {
-				if (board[i][j] != null) {
-					builder.append(blank + board[i][j].toString() + blank);
+			for (int i = 0; i < WIDTH; i++) {
+				if (getPiece(i, j) != null) {
+					builder.append(blank + getPiece(i, j).toString() + blank);
 				} else {
 					builder.append(blank + blank + blank);
 				}
@@ -109,21 +468,21 @@ public class RadikalChessState implements Cloneable, Serializable {
 			}
 			builder.append("\n");
 
-			if (j != board[0].length-1) {
+			if (j != HEIGHT-1) {
 				builder.append(blank + blank + vlbar);
 			} else {
 				builder.append(blank + blank + blcorner);
 			}
 
-			for (int i = 0; i < board.length; i++) {
-				if (i != board.length-1) {
-					if (j != board[0].length-1) {
+			for (int i = 0; i < WIDTH; i++) {
+				if (i != WIDTH-1) {
+					if (j != HEIGHT-1) {
 						builder.append(hbar + hbar + hbar + cbar);
 					} else {
 						builder.append(hbar + hbar + hbar + itbar);
 					}
 				} else {
-					if (j == board[0].length-1) {
+					if (j == HEIGHT-1) {
 						builder.append(hbar + hbar + hbar + brcorner);
 					} else {
 						builder.append(hbar + hbar + hbar + vrbar);
@@ -135,7 +494,7 @@ public class RadikalChessState implements Cloneable, Serializable {
 
 		builder.append(blank + blank + blank);
 
-		for (int i = 0; i < board.length; i++) {
+		for (int i = 0; i < WIDTH; i++) {
 			builder.append(blank + (char) (65+i) + blank + blank);
 		}
 
@@ -143,9 +502,8 @@ public class RadikalChessState implements Cloneable, Serializable {
 	}
 
 	/**
-	 * Realmente solo se crean las piezas en el tablero original,
-	 * luego jugamos con las referencias de las fichas. Con esto
-	 * conseguimos que el clonado sea ligero.
+	 * Las fichas no se guardan como objetos, así que clonar un estado
+	 * es copiar sus máscaras.
 	 */
 	@Override
 	public RadikalChessState clone() {
@@ -153,14 +511,8 @@ public class RadikalChessState implements Cloneable, Serializable {
 
 		try {
 			copy = (RadikalChessState) super.clone();
-			ChessPiece[][] newBoard = new ChessPiece[board.length][board[0].length];
-
-			for (int i = 0; i < newBoard.length; i++) {
-				for (int j = 0; j < newBoard[0].length; j++) {
-					newBoard[i][j] = board[i][j];
-				}
-			}
-			copy.board =  newBoard;
+			copy.masks = masks.clone();
+			copy.material = material.clone();
 		} catch (CloneNotSupportedException e) {
 			e.printStackTrace();
 		}
@@ -168,29 +520,36 @@ public class RadikalChessState implements Cloneable, Serializable {
 		return copy;
 	}
 
+	/**
+	 * La clave Zobrist descarta casi todas las comparaciones; solo ante
+	 * claves iguales se comparan las máscaras.
+	 */
 	@Override
 	public boolean equals(Object obj) {
 		if (obj instanceof RadikalChessState) {
 			RadikalChessState s = (RadikalChessState) obj;
-			ChessPiece[][] sboard = s.getBoard();
 
-			for (int i = 0; i < board.length; i++) {
-				for (int j = 0; j < board[0].length; j++) {
-					if (board[i][j] != sboard[i][j])
-						return false;
-				}
-			}
-			return true;
+			return hash == s.hash && player == s.player && Arrays.equals(masks, s.masks);
 		}
 
 		return false;
 	}
 
+	@Override
+	public int hashCode() {
+		return (int) (hash ^ (hash >>> 32));
+	}
+
 	public RadikalChessPlayer getPlayer() {
 		return player;
 	}
 
 	public void setPlayer(RadikalChessPlayer player) {
+		if (this.player != player) {
+			hash ^= ZOBRIST_BLACK;
+			utility = Double.NaN;
+		}
+
 		this.player = player;
 	}
 
@@ -199,36 +558,23 @@ public class RadikalChessState implements Cloneable, Serializable {
 	 * ser una nueva reina.
 	 */
 	public void newQueen() {
-		int row = (player == RadikalChessPlayer.BLACK) ?  board[0].length-1 : 0;
-
-		for (int i = 0; i < board.length; i++) {
-			if (board[i][row] != null && board[i][row] instanceof Pawn) {
-				board[i][row] = getQueen();
-				break;
-			}
-		}
+		promote();
 	}
 
 	/**
-	 * Como jugamos con referencias en el estado, optimizamos si 
-	 * encontramos una reina del jugador (para obtener su referencia)
-	 * en lugar de crear otra. Todo sea por agilizar el clonado de un 
-	 * estado.
-	 * 
-	 * @return Una reina.
-	 */
-	private ChessPiece getQueen() {
-		for (int i = 0; i < board.length; i++) {
-			for (int j = 0; j < board[0].length; j++) {
-				if (board[i][j] != null && 
-						board[i][j] instanceof Queen && 
-						board[i][j].getOwner() == player) {
-					return board[i][j];
-				}
+	 * @return Casilla del peón convertido en reina, -1 si no hay ninguno.
+	 */
+	private int promote() {
+		int row = (player == RadikalChessPlayer.BLACK) ?  HEIGHT-1 : 0;
+
+		for (int i = 0; i < WIDTH; i++) {
+			if ((masks[PAWN] & (1L << square(i, row))) != 0) {
+				putPiece(QUEEN, player.ordinal(), square(i, row));
+				return square(i, row);
 			}
 		}
 
-		return new Queen(player);
+		return -1;
 	}
 
 	/**
@@ -239,6 +585,9 @@ public class RadikalChessState implements Cloneable, Serializable {
 	 *		- HeuristicTwo: diferencia de movimientos disponibles.
 	 *		- HeuristicThree: diferencia de piezas disponibles.
 	 *		- HeuristicFour: suma de movimientos seguros.
+	 *
+	 * La utilidad se calcula bajo demanda (RadikalChessGame.getUtility) y
+	 * se descarta al modificar el estado; NaN indica que no está calculada.
 	 */
 	public double getUtility() {
 		return utility;
@@ -248,145 +597,177 @@ public class RadikalChessState implements Cloneable, Serializable {
 		this.utility = utility;
 	}
 
+	/**
+	 * @return Si la utilidad del estado ya se ha calculado.
+	 */
+	public boolean hasUtility() {
+		return !Double.isNaN(utility);
+	}
+
 	/**
 	 * @return Valor de heurística básica (victoria, derrota, nulo).
 	 */
 	public double basicLogic() {
-		double base = 0.;
+		RadikalChessPlayer enemy = RadikalChessUtil.otherPlayer(player);
 
-		for (int i = 0; i < board.length; i++) {
-			for (int j = 0; j < board[0].length; j++) {
-				if (board[i][j] != null && board[i][j] instanceof King) {
-					if (board[i][j].getOwner() == player) {
-						base += 1000.;
-					} else {
-						base -= 1000.;
-					}
-				}
-			}
-		}
-
-		return base ;
+		return ((getKingSquare(player) >= 0) ? 1000. : 0.) - ((getKingSquare(enemy) >= 0) ? 1000. : 0.);
 	}
 
 	/**
 	 * @return Diferencia del valor de las piezas.
 	 */
 	public double heuristicOne() {
-		double utility = 0.;
+		int side = player.ordinal();
 
-		for (int i = 0; i < board.length; i++) {
-			for (int j = 0; j < board[0].length; j++) {
-				if (board[i][j] != null) {
-					utility += (board[i][j].getOwner() == player) ? 
-							valueOf(board[i][j], i, j) :
-								-valueOf(board[i][j], i , j);
-				}
-			}
-		}
+		return material[side * 2 + side] - material[(1 - side) * 2 + side];
+	}
 
-		return utility;
+	/**
+	 * Valor de cada tipo de ficha; el del peón (1 o 2) depende de su columna.
+	 */
+	private static final int[] VALUES = {10, 5, 4, 3, 1};
+
+	/**
+	 * @param type Tipo de ficha.
+	 * @return Valor base de la ficha, sin tener en cuenta su posición.
+	 */
+	public static int valueOf(int type) {
+		return VALUES[type];
 	}
 
 	/**
-	 * Función que nos devuelve el valor de la pieza que le 
+	 * Función que nos devuelve el valor del tipo de ficha que le 
 	 * pasemos por parámetro.
 	 * 
-	 * @param chessPiece Pieza.
+	 * @param type Tipo de ficha.
 	 * @param i Coord.
-	 * @param j Coord.
+	 * @param player Jugador que mueve.
 	 * @return Valor de la pieza.
 	 */
-	private int valueOf(ChessPiece chessPiece, int i, int j) {
-		if (chessPiece instanceof King) {
-			return 10;
-		} else if (chessPiece instanceof Queen) {
-			return 5;
-		} else if (chessPiece instanceof Rook) {
-			return 4;
-		} else if (chessPiece instanceof Bishop) {
-			return 3;
-		} else if (chessPiece instanceof Pawn) {
+	private static int valueOf(int type, int i, RadikalChessPlayer player) {
+		if (type == PAWN) {
 			if (player == RadikalChessPlayer.WHITE) {
-				return (i >= board.length/2 -1) ? 2 : 1;	
+				return (i >= WIDTH/2 -1) ? 2 : 1;	
 			} else {
-				return (i <= board.length/2 -1) ? 2 : 1;
+				return (i <= WIDTH/2 -1) ? 2 : 1;
 			}
 		}
-		else return 0;
+
+		return VALUES[type];
 	}
 
 	/**
-	 * @return Diferencia de movimientos disponibles.
+	 * Calcula los mapas de alcance con las máscaras de destinos de cada
+	 * ficha (ChessPiece.getTargets): primero el alcance y la movilidad de
+	 * ambos jugadores y después los movimientos seguros, que son los bits
+	 * de cada máscara fuera del alcance rival.
 	 */
-	public double heuristicTwo() {
-		double utility = 0.;
+	private void computeReach() {
+		long[] targets = TARGETS.get();
+		long occupied = getOccupied();
+
+		whiteReach = blackReach = 0L;
+		whiteMobility = blackMobility = 0;
+		whiteSafe = blackSafe = 0;
+
+		while (occupied != 0) {
+			int sq = Long.numberOfTrailingZeros(occupied);
+			occupied &= occupied - 1;
+			targets[sq] = getPiece(sq).getTargets(this, sq);
+
+			if ((masks[TYPES] & (1L << sq)) != 0) {
+				whiteReach |= targets[sq];
+				whiteMobility += Long.bitCount(targets[sq]);
+			} else {
+				blackReach |= targets[sq];
+				blackMobility += Long.bitCount(targets[sq]);
+			}
+		}
 
-		for (int i = 0; i < board.length; i++) {
-			for (int j = 0; j < board[0].length; j++) {
-				if (board[i][j] != null) {
-					utility += (board[i][j].getOwner() == player) ?
-							board[i][j].getAction(this, i, j).size() :
-								-board[i][j].getAction(this, i, j).size();
-				}
+		occupied = getOccupied();
+
+		while (occupied != 0) {
+			int sq = Long.numberOfTrailingZeros(occupied);
+			occupied &= occupied - 1;
+
+			if ((masks[TYPES] & (1L << sq)) != 0) {
+				whiteSafe += Long.bitCount(targets[sq] & ~blackReach);
+			} else {
+				blackSafe += Long.bitCount(targets[sq] & ~whiteReach);
 			}
 		}
 
-		return utility;
+		reached = true;
 	}
 
 	/**
-	 * @return Diferencia de piezas.
+	 * Máscaras de destinos por casilla, de trabajo para computeReach.
 	 */
-	public double heuristicThree() {
-		double utility = 0.;
-
-		for (int i = 0; i < board.length; i++) {
-			for (int j = 0; j < board[0].length; j++) {
-				if (board[i][j] != null) {
-					utility += (board[i][j].getOwner() == player) ? 1.0 : -1.0;
-				}
-			}
+	private static final ThreadLocal<long[]> TARGETS = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[SQUARES];
 		}
+	};
 
-		return utility;
+	/**
+	 * @return Casillas a las que llega alguna ficha del jugador.
+	 */
+	public long getReach(RadikalChessPlayer owner) {
+		if (!reached) computeReach();
+
+		return (owner == RadikalChessPlayer.WHITE) ? whiteReach : blackReach;
 	}
 
 	/**
-	 * @return Suma de movimientos seguros.
+	 * @return Número de movimientos del jugador.
 	 */
-	public double heuristicFour() {
-		List<RadikalChessAction> moves = new ArrayList<>();
-		List<RadikalChessAction> enemy = new ArrayList<>();
+	public int getMobility(RadikalChessPlayer owner) {
+		if (!reached) computeReach();
 
-		for (int i = 0; i < board.length; i++) {
-			for (int j = 0; j < board[0].length; j++) {
-				if (board[i][j] != null) {
-					if (board[i][j].getOwner() == player) {
-						moves.addAll(board[i][j].getAction(this, i, j));
-					} else {
-						enemy.addAll(board[i][j].getAction(this, i, j));
-					}
-				}
-			}
-		}
+		return (owner == RadikalChessPlayer.WHITE) ? whiteMobility : blackMobility;
+	}
 
-		Iterator<RadikalChessAction> iterator = moves.iterator();
-		while (iterator.hasNext()) {
-			RadikalChessAction action = iterator.next();
+	/**
+	 * @return Movimientos del jugador a casillas que el rival no alcanza.
+	 */
+	public int getSafeMoves(RadikalChessPlayer owner) {
+		if (!reached) computeReach();
 
-			Iterator<RadikalChessAction> eiterator = enemy.iterator();
-			while (eiterator.hasNext()) {
-				RadikalChessAction eaction = eiterator.next();
+		return (owner == RadikalChessPlayer.WHITE) ? whiteSafe : blackSafe;
+	}
 
-				if (eaction.getX1() == action.getX1() && eaction.getY1() == action.getY1()) {
-					iterator.remove();
-					break;
-				}
-			}
-		}
+	/**
+	 * Descarta los mapas de alcance calculados; el siguiente acceso los
+	 * vuelve a calcular. Sirve para medir su coste sobre el mismo estado.
+	 */
+	public void clearReach() {
+		reached = false;
+	}
 
-		return moves.size();
+	/**
+	 * @return Diferencia de movimientos disponibles.
+	 */
+	public double heuristicTwo() {
+		return getMobility(player) - getMobility(RadikalChessUtil.otherPlayer(player));
+	}
+
+	/**
+	 * Las máscaras de cada jugador ya son el recuento de sus fichas.
+	 * 
+	 * @return Diferencia de piezas.
+	 */
+	public double heuristicThree() {
+		RadikalChessPlayer enemy = RadikalChessUtil.otherPlayer(player);
+
+		return Long.bitCount(getPieces(player)) - Long.bitCount(getPieces(enemy));
+	}
+
+	/**
+	 * @return Suma de movimientos seguros.
+	 */
+	public double heuristicFour() {
+		return getSafeMoves(player);
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package Model;
+
+/**
+ * Registro para deshacer un movimiento hecho con RadikalChessState.makeMove.
+ * Guarda lo que el movimiento destruye: la ficha capturada, la promoción
+ * del peón, el turno, la clave Zobrist y la utilidad calculada.
+ * 
+ * La búsqueda reserva un registro por nivel y los reutiliza, de modo que
+ * hacer y deshacer movimientos no crea objetos.
+ * 
+ * @author Quique
+ */
+public class RadikalChessUndo {
+
+	int capturedType = -1;
+	int capturedOwner = -1;
+	int promotedSquare = -1;
+	int promotedOwner = -1;
+	RadikalChessPlayer player;
+	long hash;
+	double utility;
+
+	/**
+	 * @return Tipo de la ficha capturada, -1 si no hubo captura.
+	 */
+	public int getCapturedType() {
+		return capturedType;
+	}
+
+	/**
+	 * @return Casilla en la que un peón se convirtió en reina, -1 si ninguna.
+	 */
+	public int getPromotedSquare() {
+		return promotedSquare;
+	}
+}
@@ -1,11 +1,10 @@
 package Model;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Random;
 
@@ -22,11 +21,7 @@ public class RadikalChessUtil {
 	public static boolean foundCollision(RadikalChessState state, int x, int y, RadikalChessPlayer owner) {
 		if (!inBounds(state, x, y)) return true;
 
-		ChessPiece[][] board = state.getBoard();
-
-		if (board[x][y] != null && board[x][y].getOwner() == owner) return true;
-
-		return false;
+		return (state.getPieces(owner) & (1L << RadikalChessState.square(x, y))) != 0;
 	}
 
 	/**
@@ -35,54 +30,30 @@ public class RadikalChessUtil {
 	public static boolean foundCollisionAll(RadikalChessState state, int x, int y) {
 		if (!inBounds(state, x, y)) return true;
 
-		ChessPiece[][] board = state.getBoard();
-
-		if (board[x][y] != null) return true;
-
-		return false;
+		return (state.getOccupied() & (1L << RadikalChessState.square(x, y))) != 0;
 	}
 
 	/**
 	 * @return Si las coordenadas en el estado se encuentra en los límites de este.
 	 */
 	public static boolean inBounds(RadikalChessState state, int x, int y) {
-		if (x < 0 || y < 0) return false;
-
-		ChessPiece[][] board = state.getBoard();
-
-		if (x >= board.length || y >= board[0].length) return false;
-
-		return true;
+		return x >= 0 && y >= 0 && x < RadikalChessState.WIDTH && y < RadikalChessState.HEIGHT;
 	}
 
 	/**
 	 * @return Si la ficha en el estado y la posición indicada es del jugador enemigo.
 	 */
 	public static boolean isEnemy(RadikalChessState state, int x, int y, RadikalChessPlayer owner) {
-		ChessPiece[][] board = state.getBoard();
-
-		if (inBounds(state, x, y)  && 
-				board[x][y] != null && 
-				board[x][y].getOwner() != owner) {
-			return true;
-		}
-
-		return false;
+		return inBounds(state, x, y) && 
+				(state.getPieces(otherPlayer(owner)) & (1L << RadikalChessState.square(x, y))) != 0;
 	}
 
 	/**
 	 * @return Si la ficha en el estado y la posición indicada es del juador.
 	 */
 	public static boolean isAlly(RadikalChessState state, int x, int y, RadikalChessPlayer owner) {
-		ChessPiece[][] board = state.getBoard();
-
-		if (inBounds(state, x, y)  && 
-				board[x][y] != null && 
-				board[x][y].getOwner() == owner) {
-			return true;
-		}
-
-		return false;
+		return inBounds(state, x, y) && 
+				(state.getPieces(owner) & (1L << RadikalChessState.square(x, y))) != 0;
 	}
 
 	/**
@@ -100,9 +71,9 @@ public class RadikalChessUtil {
 	 * @return La distancia con el rey enemigo del jugador.
 	 */
 	public static boolean kingRange(RadikalChessState state, int x0, int y0, int x1, int y1, RadikalChessPlayer player) {
-		int[] king = getEnemyKing(state, player);
+		int[] distance = RadikalChessGeometry.DISTANCE[getEnemyKingSquare(state, player)];
 		
-		return euclidea(king[0], king[1], x1, y1) < euclidea(king[0], king[1], x0, y0);
+		return distance[RadikalChessState.square(x1, y1)] < distance[RadikalChessState.square(x0, y0)];
 	}
 
 	/**
@@ -125,38 +96,20 @@ public class RadikalChessUtil {
 	 * @return La posición del rey enemigo.
 	 */
 	public static int[] getEnemyKing(RadikalChessState state, RadikalChessPlayer owner) {
-		ChessPiece[][] board = state.getBoard();
-		int[] king = new int[2];
-
-		switch (owner) {
-			case BLACK:
-				for (int i = 0; i < board.length; i++) {
-					for (int j = 0; j < board[0].length; j++) {
-						if (board[i][j] != null && 
-								board[i][j] instanceof King && 
-								board[i][j].getOwner() == RadikalChessPlayer.WHITE) {
-							king[0] = i;
-							king[1] = j;
-							return king;
-						}
-					}
-				}
-				break;
-			case WHITE:
-				for (int i = 0; i < board.length; i++) {
-					for (int j = 0; j < board[0].length; j++) {
-						if (board[i][j] != null && 
-								board[i][j] instanceof King && 
-								board[i][j].getOwner() == RadikalChessPlayer.BLACK) {
-							king[0] = i;
-							king[1] = j;
-							return king;
-						}
-					}
-				}
-		}
+		int sq = getEnemyKingSquare(state, owner);
 
-		return king;
+		return new int[]{RadikalChessState.fileOf(sq), RadikalChessState.rankOf(sq)};
+	}
+	
+	/**
+	 * @param state Un estado.
+	 * @param owner Dueño.
+	 * @return La casilla del rey enemigo (0 si no está, como getEnemyKing).
+	 */
+	public static int getEnemyKingSquare(RadikalChessState state, RadikalChessPlayer owner) {
+		int king = state.getKingSquare(otherPlayer(owner));
+
+		return (king < 0) ? 0 : king;
 	}
 	
 	/**
@@ -170,7 +123,7 @@ public class RadikalChessUtil {
 		int x = action.getX1();
 		int y = action.getY1();
 		
-		return "[" + (char) (65 + i) + "" +  (state.getBoard()[0].length - j) + " to " + (char) (65 + x) + "" +  (state.getBoard()[0].length - y) + 
+		return "[" + (char) (65 + i) + "" +  (RadikalChessState.HEIGHT - j) + " to " + (char) (65 + x) + "" +  (RadikalChessState.HEIGHT - y) + 
 				(action.isCapture()? ", capture" : "") + "]";
 	}
 
@@ -187,62 +140,153 @@ public class RadikalChessUtil {
 	}
 
 	/**
-	 * Utilidad para guardar un estado en un fichero (objeto serializable).
+	 * Letras de la notación de texto, en el orden de los tipos de
+	 * RadikalChessState; mayúsculas para blancas y minúsculas para negras.
+	 */
+	private static final String LETTERS = "KQRBP";
+
+	/**
+	 * Notación de texto de un estado: las filas de y = 0 a y = HEIGHT - 1
+	 * separadas por '/', una letra por casilla ('.' si está vacía), y el
+	 * jugador que mueve ('w' o 'b'). El tablero inicial es
+	 * "kqbr/pppp/..../..../PPPP/RBQK w".
+	 *
+	 * @param state Un estado.
+	 * @return El estado en notación de texto.
+	 */
+	public static String toText(RadikalChessState state) {
+		StringBuilder text = new StringBuilder();
+
+		for (int y = 0; y < RadikalChessState.HEIGHT; y++) {
+			if (y > 0) text.append('/');
+
+			for (int x = 0; x < RadikalChessState.WIDTH; x++) {
+				int sq = RadikalChessState.square(x, y);
+				int type = state.getType(sq);
+
+				if (type < 0) {
+					text.append('.');
+				} else if (state.getOwner(sq) == RadikalChessPlayer.WHITE) {
+					text.append(LETTERS.charAt(type));
+				} else {
+					text.append(Character.toLowerCase(LETTERS.charAt(type)));
+				}
+			}
+		}
+
+		text.append(state.getPlayer() == RadikalChessPlayer.WHITE ? " w" : " b");
+
+		return text.toString();
+	}
+
+	/**
+	 * @param text Un estado en la notación de toText.
+	 * @return El estado descrito.
+	 * @throws IllegalArgumentException Si el texto no es una posición válida.
+	 */
+	public static RadikalChessState fromText(String text) {
+		String[] parts = text.trim().split("\\s+");
+		String[] rows = parts[0].split("/");
+
+		if (parts.length != 2 || rows.length != RadikalChessState.HEIGHT || !parts[1].matches("[wb]")) {
+			throw new IllegalArgumentException("Malformed position: " + text);
+		}
+
+		ChessPiece[][] board = new ChessPiece[RadikalChessState.WIDTH][RadikalChessState.HEIGHT];
+
+		for (int y = 0; y < RadikalChessState.HEIGHT; y++) {
+			if (rows[y].length() != RadikalChessState.WIDTH) {
+				throw new IllegalArgumentException("Malformed position: " + text);
+			}
+
+			for (int x = 0; x < RadikalChessState.WIDTH; x++) {
+				char c = rows[y].charAt(x);
+
+				if (c == '.') continue;
+
+				int type = LETTERS.indexOf(Character.toUpperCase(c));
+
+				if (type < 0) {
+					throw new IllegalArgumentException("Malformed position: " + text);
+				}
+
+				board[x][y] = newPiece(type, Character.isUpperCase(c) ? RadikalChessPlayer.WHITE : RadikalChessPlayer.BLACK);
+			}
+		}
+
+		RadikalChessState state = new RadikalChessState(board);
+		state.setPlayer(parts[1].equals("w") ? RadikalChessPlayer.WHITE : RadikalChessPlayer.BLACK);
+
+		return state;
+	}
+
+	/**
+	 * @return Ficha del tipo (constantes de RadikalChessState) y jugador dados.
+	 */
+	public static ChessPiece newPiece(int type, RadikalChessPlayer owner) {
+		switch (type) {
+			case RadikalChessState.KING:
+				return new King(owner);
+			case RadikalChessState.QUEEN:
+				return new Queen(owner);
+			case RadikalChessState.ROOK:
+				return new Rook(owner);
+			case RadikalChessState.BISHOP:
+				return new Bishop(owner);
+			default:
+				return new Pawn(owner);
+		}
+	}
+
+	/**
+	 * Utilidad para guardar un estado en un fichero (formato binario de
+	 * PositionWriter, una sola posición).
 	 * 
 	 * @param state Estado que se ha de guardar.
 	 * @param filename Nombre del fichero.
 	 */
 	public static void saveToFile(RadikalChessState state, String filename) {
-		FileOutputStream out = null;
-
-		try {
-			out = new FileOutputStream(filename);
-		} catch (FileNotFoundException e) {
+		try (PositionWriter out = new PositionWriter(filename)) {
+			out.write(state);
+		} catch (IOException e) {
 			System.out.println("Couldn't save to file.");
 		}
-
-		ObjectOutputStream obj;
-
-		if (out != null)
-			try {
-				obj = new ObjectOutputStream(out);
-				obj.writeObject(state);
-				obj.close();
-			} catch (IOException e) {
-				System.out.println("Couldn't save to file.");
-			}
 	}
 
 	/**
-	 * Utilidad para cargar un estado de un fichero (objeto serializable).
+	 * Utilidad para cargar un estado de un fichero. Los ficheros
+	 * serializados de versiones anteriores se convierten al cargarlos
+	 * (véase LegacyStateConverter).
 	 * 
 	 * @param filename Nombre del fichero a cargar.
-	 * @return Estado del fichero cargado.
+	 * @return Estado del fichero cargado, null si no se ha podido cargar.
 	 */
 	public static RadikalChessState loadFromFile(String filename) {
-		FileInputStream in = null;
-		RadikalChessState state = null;
-
 		try {
-			in = new FileInputStream(filename);
-		} catch (FileNotFoundException e) {
-			System.out.println("Couldn't load from file.");
-		}
-
-		ObjectInputStream obj;
+			if (isLegacyFile(filename)) {
+				try (InputStream in = new BufferedInputStream(new FileInputStream(filename))) {
+					return LegacyStateConverter.read(in);
+				}
+			}
 
-		if (in != null)
-			try {
-				obj = new ObjectInputStream(in);
-				state = (RadikalChessState) obj.readObject();
-				obj.close();
-			} catch (IOException | ClassNotFoundException e) {
-				System.out.println("Couldn't load from file.");
+			try (PositionReader in = new PositionReader(filename)) {
+				return in.next();
 			}
+		} catch (IOException | IllegalArgumentException e) {
+			System.out.println("Couldn't load from file.");
+			return null;
+		}
+	}
 
-		return state;
+	/**
+	 * @return Si el fichero empieza como un flujo de serialización de Java.
+	 */
+	private static boolean isLegacyFile(String filename) throws IOException {
+		try (DataInputStream in = new DataInputStream(new FileInputStream(filename))) {
+			return in.available() >= 2 && in.readUnsignedShort() == LegacyStateConverter.STREAM_MAGIC;
+		}
 	}
-	
+
 	/**
 	 * La partida media en este juego es sobre los 20-25 movimientos.
 	 * La generación aleatoria puede adelantar la situación como máximo
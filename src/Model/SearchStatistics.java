@@ -0,0 +1,378 @@
+package Model;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Estadísticas de una búsqueda con contadores primitivos. Cada
+ * SearchWorker lleva las suyas y ABSearch las suma al terminar; las de
+ * cada iteración de la profundización son las del trabajador principal.
+ *
+ * Los nodos son los nodos expandidos (también los de quietud). La tasa de
+ * corte en el primer movimiento mide la ordenación: de los nodos con corte
+ * beta, en cuántos lo provocó el primer movimiento probado.
+ *
+ * @author Quique
+ */
+public class SearchStatistics {
+
+	/**
+	 * Cabecera de las líneas de toCsv.
+	 */
+	public static final String CSV_HEADER = "time_ms,nodes,nps,depth,max_depth,score,ebf," +
+			"quiescence_nodes,cutoffs,first_move_cutoff_rate,evaluations,evaluation_ms," +
+			"table_probes,table_hit_rate,tablebase_probes,tablebase_hit_rate,researches,aspiration_failures,null_moves,null_move_cutoff_rate,reductions,iteration_nodes,iteration_ms";
+
+	long nodes;
+	long quiescenceNodes;
+	long cutoffs;
+	long firstMoveCutoffs;
+	long evaluations;
+	long evaluationNanos;
+	long tableProbes;
+	long tableHits;
+	long tablebaseProbes;
+	long tablebaseHits;
+	long researches;
+	long aspirationFailures;
+	long nullMoves;
+	long nullMoveCutoffs;
+	long reductions;
+
+	private int iterations;
+	private long[] iterationNodes = new long[ABSearch.MAX_PLY];
+	private long[] iterationNanos = new long[ABSearch.MAX_PLY];
+	private long time;
+	private int maxDepth;
+	private double score;
+
+	/**
+	 * Pone todos los contadores a cero.
+	 */
+	public void reset() {
+		nodes = quiescenceNodes = cutoffs = firstMoveCutoffs = 0;
+		evaluations = evaluationNanos = 0;
+		tableProbes = tableHits = tablebaseProbes = tablebaseHits = 0;
+		researches = aspirationFailures = 0;
+		nullMoves = nullMoveCutoffs = reductions = 0;
+		iterations = 0;
+		time = 0;
+		maxDepth = 0;
+		score = 0.;
+	}
+
+	/**
+	 * Suma los contadores de otra búsqueda (las iteraciones no).
+	 */
+	void add(SearchStatistics other) {
+		nodes += other.nodes;
+		quiescenceNodes += other.quiescenceNodes;
+		cutoffs += other.cutoffs;
+		firstMoveCutoffs += other.firstMoveCutoffs;
+		evaluations += other.evaluations;
+		evaluationNanos += other.evaluationNanos;
+		tableProbes += other.tableProbes;
+		tableHits += other.tableHits;
+		tablebaseProbes += other.tablebaseProbes;
+		tablebaseHits += other.tablebaseHits;
+		researches += other.researches;
+		aspirationFailures += other.aspirationFailures;
+		nullMoves += other.nullMoves;
+		nullMoveCutoffs += other.nullMoveCutoffs;
+		reductions += other.reductions;
+	}
+
+	/**
+	 * Copia las iteraciones de otra búsqueda.
+	 */
+	void copyIterations(SearchStatistics other) {
+		iterations = other.iterations;
+		System.arraycopy(other.iterationNodes, 0, iterationNodes, 0, iterations);
+		System.arraycopy(other.iterationNanos, 0, iterationNanos, 0, iterations);
+	}
+
+	/**
+	 * Registra una iteración terminada.
+	 *
+	 * @param nodes Nodos acumulados al terminarla.
+	 * @param nanos Tiempo acumulado al terminarla.
+	 */
+	void endIteration(long nodes, long nanos) {
+		if (iterations == iterationNodes.length) return;
+
+		iterationNodes[iterations] = nodes - sum(iterationNodes);
+		iterationNanos[iterations] = nanos - sum(iterationNanos);
+		iterations++;
+	}
+
+	private long sum(long[] values) {
+		long sum = 0;
+
+		for (int i = 0; i < iterations; i++) {
+			sum += values[i];
+		}
+
+		return sum;
+	}
+
+	void finish(long time, int maxDepth, double score) {
+		this.time = time;
+		this.maxDepth = maxDepth;
+		this.score = score;
+	}
+
+	/**
+	 * @return Nodos expandidos.
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @return Duración de la búsqueda en milisegundos.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * @return Nodos por segundo.
+	 */
+	public double getNodesPerSecond() {
+		return (time == 0) ? 0. : nodes * 1000. / time;
+	}
+
+	/**
+	 * @return Iteraciones de la profundización (profundidades 1..n).
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * @return Nodos de la iteración i (profundidad i + 1) del trabajador principal.
+	 */
+	public long getIterationNodes(int i) {
+		return iterationNodes[i];
+	}
+
+	/**
+	 * @return Milisegundos de la iteración i (profundidad i + 1).
+	 */
+	public double getIterationTime(int i) {
+		return iterationNanos[i] / 1e6;
+	}
+
+	/**
+	 * @return Profundidad máxima alcanzada (con quietud).
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * @return Puntuación del movimiento elegido.
+	 */
+	public double getScore() {
+		return score;
+	}
+
+	/**
+	 * Con la tabla de transposiciones una iteración puede costar casi nada,
+	 * así que se comparan los nodos acumulados y no los de cada iteración.
+	 * 
+	 * @return Factor de ramificación efectivo: nodos hasta la última
+	 * iteración entre los nodos hasta la anterior (0 si hay menos de dos).
+	 */
+	public double getBranchingFactor() {
+		if (iterations < 2) return 0.;
+
+		long last = sum(iterationNodes);
+		long previous = last - iterationNodes[iterations - 1];
+
+		return (previous == 0) ? 0. : (double) last / previous;
+	}
+
+	/**
+	 * @return Nodos de quietud (incluidos en getNodes).
+	 */
+	public long getQuiescenceNodes() {
+		return quiescenceNodes;
+	}
+
+	/**
+	 * @return Cortes beta.
+	 */
+	public long getCutoffs() {
+		return cutoffs;
+	}
+
+	/**
+	 * @return Fracción de los cortes beta provocados por el primer movimiento.
+	 */
+	public double getFirstMoveCutoffRate() {
+		return rate(firstMoveCutoffs, cutoffs);
+	}
+
+	/**
+	 * @return Evaluaciones calculadas (sin contar las ya guardadas en el estado).
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * @return Milisegundos dedicados a evaluar, sumados entre hilos.
+	 */
+	public double getEvaluationTime() {
+		return evaluationNanos / 1e6;
+	}
+
+	/**
+	 * @return Consultas a la tabla de transposiciones.
+	 */
+	public long getTableProbes() {
+		return tableProbes;
+	}
+
+	/**
+	 * @return Fracción de consultas a la tabla de transposiciones con entrada.
+	 */
+	public double getTableHitRate() {
+		return rate(tableHits, tableProbes);
+	}
+
+	/**
+	 * @return Consultas a las tablas de finales.
+	 */
+	public long getTablebaseProbes() {
+		return tablebaseProbes;
+	}
+
+	/**
+	 * @return Fracción de consultas a las tablas de finales con resultado.
+	 */
+	public double getTablebaseHitRate() {
+		return rate(tablebaseHits, tablebaseProbes);
+	}
+
+	/**
+	 * @return Movimientos que superaron la ventana nula de PVS y hubo que
+	 * buscar de nuevo con la ventana completa.
+	 */
+	public long getResearches() {
+		return researches;
+	}
+
+	/**
+	 * @return Iteraciones repetidas por caer fuera de la ventana de aspiración.
+	 */
+	public long getAspirationFailures() {
+		return aspirationFailures;
+	}
+
+	/**
+	 * @return Movimientos nulos probados.
+	 */
+	public long getNullMoves() {
+		return nullMoves;
+	}
+
+	/**
+	 * @return Fracción de los movimientos nulos que han cortado.
+	 */
+	public double getNullMoveCutoffRate() {
+		return rate(nullMoveCutoffs, nullMoves);
+	}
+
+	/**
+	 * @return Movimientos buscados con profundidad reducida (LMR).
+	 */
+	public long getReductions() {
+		return reductions;
+	}
+
+	private static double rate(long hits, long total) {
+		return (total == 0) ? 0. : (double) hits / total;
+	}
+
+	/**
+	 * @return Una línea CSV con las columnas de CSV_HEADER; los nodos y
+	 * tiempos por iteración van separados por ';'.
+	 */
+	public String toCsv() {
+		StringBuilder nodes = new StringBuilder();
+		StringBuilder times = new StringBuilder();
+
+		for (int i = 0; i < iterations; i++) {
+			if (i > 0) {
+				nodes.append(';');
+				times.append(';');
+			}
+
+			nodes.append(iterationNodes[i]);
+			times.append(format(getIterationTime(i)));
+		}
+
+		return time + "," + this.nodes + "," + format(getNodesPerSecond()) + "," + iterations + "," +
+				maxDepth + "," + format(score) + "," + format(getBranchingFactor()) + "," + quiescenceNodes + "," +
+				cutoffs + "," + format(getFirstMoveCutoffRate()) + "," + evaluations + "," + format(getEvaluationTime()) + "," +
+				tableProbes + "," + format(getTableHitRate()) + "," +
+				tablebaseProbes + "," + format(getTablebaseHitRate()) + "," + researches + "," + aspirationFailures + "," +
+				nullMoves + "," + format(getNullMoveCutoffRate()) + "," + reductions + "," + nodes + "," + times;
+	}
+
+	/**
+	 * @return Un objeto JSON (una línea) con los mismos datos que toCsv.
+	 */
+	public String toJson() {
+		StringBuilder nodes = new StringBuilder();
+		StringBuilder times = new StringBuilder();
+
+		for (int i = 0; i < iterations; i++) {
+			if (i > 0) {
+				nodes.append(',');
+				times.append(',');
+			}
+
+			nodes.append(iterationNodes[i]);
+			times.append(format(getIterationTime(i)));
+		}
+
+		return "{\"time_ms\":" + time + ",\"nodes\":" + this.nodes + ",\"nps\":" + format(getNodesPerSecond()) +
+				",\"depth\":" + iterations + ",\"max_depth\":" + maxDepth + ",\"score\":" + format(score) +
+				",\"ebf\":" + format(getBranchingFactor()) + ",\"quiescence_nodes\":" + quiescenceNodes +
+				",\"cutoffs\":" + cutoffs + ",\"first_move_cutoff_rate\":" + format(getFirstMoveCutoffRate()) +
+				",\"evaluations\":" + evaluations + ",\"evaluation_ms\":" + format(getEvaluationTime()) +
+				",\"table_probes\":" + tableProbes + ",\"table_hit_rate\":" + format(getTableHitRate()) +
+				",\"tablebase_probes\":" + tablebaseProbes + ",\"tablebase_hit_rate\":" + format(getTablebaseHitRate()) +
+				",\"researches\":" + researches + ",\"aspiration_failures\":" + aspirationFailures +
+				",\"null_moves\":" + nullMoves + ",\"null_move_cutoff_rate\":" + format(getNullMoveCutoffRate()) +
+				",\"reductions\":" + reductions +
+				",\"iteration_nodes\":[" + nodes + "],\"iteration_ms\":[" + times + "]}";
+	}
+
+	/**
+	 * Añade la búsqueda al fichero: una línea JSON si el nombre acaba en
+	 * ".json" y si no una línea CSV (con la cabecera si el fichero es nuevo).
+	 *
+	 * @param filename Nombre del fichero.
+	 */
+	public void appendTo(String filename) throws IOException {
+		boolean json = filename.toLowerCase(Locale.ROOT).endsWith(".json");
+		boolean header = !json && !new File(filename).exists();
+
+		try (PrintWriter out = new PrintWriter(new FileWriter(filename, true))) {
+			if (header) out.println(CSV_HEADER);
+
+			out.println(json ? toJson() : toCsv());
+		}
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.4f", value);
+	}
+}
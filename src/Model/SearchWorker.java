@@ -0,0 +1,530 @@
+package Model;
+
+/**
+ * Hilo de búsqueda de ABSearch. Cada trabajador tiene su copia del estado,
+ * sus registros de deshacer, su ordenación de movimientos y sus contadores;
+ * solo la tabla de transposiciones se comparte (Lazy SMP).
+ *
+ * El trabajador 0 es el principal y su resultado es el que se devuelve; los
+ * demás buscan el mismo árbol, la mitad de ellos un nivel por delante, y
+ * aportan lo que encuentran a través de la tabla.
+ *
+ * @author Quique
+ */
+class SearchWorker implements Runnable {
+
+	private final ABSearch search;
+	private final RadikalChessGame game;
+	private final TranspositionTable table;
+	private final int id;
+	private final MoveOrdering ordering = new MoveOrdering(ABSearch.MAX_PLY);
+	private final RadikalChessUndo[] undo = new RadikalChessUndo[ABSearch.MAX_PLY];
+	private final int[][] moves = new int[ABSearch.MAX_PLY][RadikalChessGame.MAX_MOVES];
+
+	private RadikalChessState state;
+	private int depthLimit;
+	private boolean maxDepthReached;
+	private boolean timeout;
+	private int rootMove;
+	private double rootScore;
+	private int bestMove;
+	private double bestScore;
+	private final SearchStatistics statistics = new SearchStatistics();
+	private int maxDepth;
+	private int quiescenceLeft;
+	private double[] deltas = new double[RadikalChessState.TYPES];
+
+	SearchWorker(ABSearch search, RadikalChessGame game, TranspositionTable table, int id) {
+		this.search = search;
+		this.game = game;
+		this.table = table;
+		this.id = id;
+
+		for (int i = 0; i < ABSearch.MAX_PLY; i++) {
+			undo[i] = new RadikalChessUndo();
+		}
+	}
+
+	/**
+	 * Prepara al trabajador para buscar desde la raíz dada.
+	 */
+	void reset(RadikalChessState root, int firstMove) {
+		state = root.clone();
+		ordering.newSearch();
+		timeout = false;
+		bestMove = firstMove;
+		bestScore = 0.;
+		statistics.reset();
+		maxDepth = 0;
+		prepareDeltas(game.getHeuristicsw());
+	}
+
+	/**
+	 * Margen de la poda delta por tipo de ficha capturada: su valor en la
+	 * evaluación (el peón puede valer 2) más lo que una captura puede mover
+	 * el resto de términos (una ficha menos y la movilidad). La captura del
+	 * rey nunca se poda.
+	 */
+	private void prepareDeltas(double[] weights) {
+		double others = Math.abs(weights[3]) + 
+				(Math.abs(weights[2]) + Math.abs(weights[4])) * ABSearch.DELTA_MOBILITY;
+
+		for (int type = 0; type < RadikalChessState.TYPES; type++) {
+			int value = (type == RadikalChessState.PAWN) ? 2 : RadikalChessState.valueOf(type);
+
+			deltas[type] = (type == RadikalChessState.KING) ? Double.POSITIVE_INFINITY :
+				Math.abs(weights[1]) * value + others;
+		}
+	}
+
+	/**
+	 * Profundización iterativa hasta agotar el tiempo, resolver el árbol,
+	 * llegar al límite de profundidad o recibir la orden de parar. Tras cada
+	 * iteración el principal pregunta si empezar otra (véase TimeManager).
+	 */
+	@Override
+	public void run() {
+		int limit = search.getDepthLimit();
+		long start = System.nanoTime();
+		long iterationTime = 0;
+		int stable = 0;
+		boolean first = true;
+
+		depthLimit = (id % 2 == 0 || limit < 2) ? 0 : 1;
+
+		do {
+			long iterationStart = System.nanoTime();
+			int previousMove = bestMove;
+
+			depthLimit++;
+
+			double score = aspiration(first);
+
+			first = false;
+
+			if (!timeout) statistics.endIteration(statistics.nodes, System.nanoTime() - start);
+
+			if (timeout || Math.abs(score) >= search.getUtilMax()) break;
+
+			long previousTime = iterationTime;
+
+			iterationTime = System.nanoTime() - iterationStart;
+			stable = (bestMove == previousMove) ? stable + 1 : 0;
+
+			// Solo el principal decide si sigue; al parar él se detienen todos.
+			if (id == 0 && !search.nextIteration(stable, iterationTime, previousTime)) break;
+		} while (maxDepthReached && depthLimit < limit);
+	}
+
+	/**
+	 * Una iteración con ventana de aspiración: se busca alrededor de la
+	 * puntuación de la iteración anterior y, si el resultado cae fuera, se
+	 * ensancha por el lado que ha fallado (el doble cada vez, y sin límite
+	 * tras ASPIRATION_RETRIES fallos). La primera iteración, las victorias
+	 * o derrotas ya encontradas y una ventana 0 usan la ventana completa.
+	 * 
+	 * Tras un fallo por abajo no hay movimiento fiable y se descarta; tras
+	 * un fallo por arriba el movimiento que lo provocó es mejor que el
+	 * anterior y se queda por si se agota el tiempo al repetir. La
+	 * puntuación que se guarda con el movimiento es la que obtuvo en la
+	 * raíz, no la que devuelve una búsqueda cortada por el tiempo.
+	 * 
+	 * @param first Si es la primera iteración del trabajador.
+	 * @return Puntuación de la iteración.
+	 */
+	private double aspiration(boolean first) {
+		double window = search.getAspirationWindow();
+		double alpha = Double.NEGATIVE_INFINITY;
+		double beta = Double.POSITIVE_INFINITY;
+		double score;
+
+		if (!first && window > 0 && Math.abs(bestScore) < search.getUtilMax()) {
+			alpha = bestScore - window;
+			beta = bestScore + window;
+		}
+
+		for (int retries = 0; ; retries++) {
+			maxDepthReached = false;
+			rootMove = RadikalChessAction.NO_MOVE;
+
+			score = alphaBeta(depthLimit, 0, alpha, beta, false);
+
+			if (rootMove != RadikalChessAction.NO_MOVE) {
+				bestMove = rootMove;
+				bestScore = rootScore;
+			}
+
+			if (timeout) break;
+
+			window *= 2;
+
+			if (score <= alpha) {
+				alpha = (retries < ABSearch.ASPIRATION_RETRIES) ? score - window : Double.NEGATIVE_INFINITY;
+			} else if (score >= beta) {
+				beta = (retries < ABSearch.ASPIRATION_RETRIES) ? score + window : Double.POSITIVE_INFINITY;
+			} else {
+				break;
+			}
+
+			statistics.aspirationFailures++;
+		}
+
+		return score;
+	}
+
+	/**
+	 * Búsqueda de variante principal (PVS): el primer movimiento se busca
+	 * con la ventana completa y el resto con ventana nula, solo para
+	 * comprobar que no lo mejoran; si alguno lo mejora se repite con la
+	 * ventana completa. En la raíz solo se acepta un movimiento que supere
+	 * alpha, de modo que un fallo por abajo de la aspiración no deja uno.
+	 * 
+	 * Con búsqueda selectiva se prueba antes el movimiento nulo (véase
+	 * nullMove) y los movimientos tranquilos del final de la lista se
+	 * buscan con menos profundidad (LMR); si uno de ellos supera alpha se
+	 * repite a la profundidad completa. Ninguna de las dos se aplica en los
+	 * nodos de la variante principal (ventana no nula).
+	 * 
+	 * @param depth Profundidad restante.
+	 * @param ply Distancia a la raíz.
+	 * @param nullMove Si se puede probar el movimiento nulo en este nodo.
+	 * @return Valor del nodo para el jugador que mueve en él.
+	 */
+	private double alphaBeta(int depth, int ply, double alpha, double beta, boolean nullMove) {
+		if (ply > maxDepth) maxDepth = ply;
+
+		Tablebase tablebase = search.getTablebase();
+
+		if (tablebase != null && ply > 0) {
+			int value = tablebase.probe(state);
+
+			statistics.tablebaseProbes++;
+
+			if (value != Tablebase.NOT_FOUND) {
+				statistics.tablebaseHits++;
+				return Tablebase.score(value, search.getUtilMax() + Tablebase.MAX_DISTANCE + 1);
+			}
+		}
+
+		if (depth == 0) {
+			if (game.isTerminal(state)) return evaluate();
+
+			maxDepthReached = true;
+
+			if (search.getQuiescenceNodes() == 0) return evaluate();
+
+			quiescenceLeft = search.getQuiescenceNodes();
+
+			return quiesce(ply, alpha, beta);
+		}
+
+		int[] moves = this.moves[ply];
+		int count = state.hasBothKings() ? game.getMoves(state, moves) : 0;
+
+		if (count == 0) {
+			return evaluate();
+		}
+
+		statistics.nodes++;
+
+		if ((statistics.nodes & 1023) == 0 && (depthLimit > 1 || id > 0) && search.isTimeUp()) {
+			timeout = true;
+		}
+
+		if (timeout) return 0.;
+
+		long key = state.getHash();
+		int hashMove = RadikalChessAction.NO_MOVE;
+		long entry = table.probe(key);
+
+		statistics.tableProbes++;
+
+		if (entry != TranspositionTable.MISS) {
+			statistics.tableHits++;
+			hashMove = TranspositionTable.getMove(entry);
+
+			if (TranspositionTable.getDepth(entry) >= depth && ply > 0) {
+				double score = TranspositionTable.getScore(entry);
+
+				// La entrada puede venir de un árbol cortado por profundidad.
+				maxDepthReached = true;
+
+				switch (TranspositionTable.getFlag(entry)) {
+					case TranspositionTable.EXACT:
+						return score;
+					case TranspositionTable.LOWER:
+						alpha = Math.max(alpha, score);
+						break;
+					case TranspositionTable.UPPER:
+						beta = Math.min(beta, score);
+						break;
+				}
+
+				if (alpha >= beta) return score;
+			}
+		}
+
+		boolean pv = beta > Math.nextUp(alpha);
+
+		if (nullMove && !pv && search.isNullMove() && ply > 0 && depth >= ABSearch.NULL_MOVE_DEPTH) {
+			double value = nullMove(depth, ply, beta);
+
+			if (timeout) return 0.;
+			if (value >= beta) return value;
+		}
+
+		ordering.order(state, moves, count, hashMove, ply);
+
+		boolean reduce = search.isLateMoveReductions() && !pv && depth >= ABSearch.LMR_DEPTH && 
+				count > ABSearch.LMR_MOVES;
+
+		double alphaOrig = alpha;
+		double best = Double.NEGATIVE_INFINITY;
+		int bestMove = RadikalChessAction.NO_MOVE;
+
+		for (int i = 0; i < count; i++) {
+			int move = moves[i];
+
+			double value;
+			int reduction = (reduce && i >= ABSearch.LMR_MOVES && ordering.isQuiet(ply, i) && !isPromotion(move)) ? 
+					ABSearch.LMR_REDUCTION[depth][Math.min(i, RadikalChessGame.MAX_MOVES - 1)] : 0;
+
+			state.makeMove(move, undo[ply]);
+
+			// Los movimientos que atacan al rey enemigo no se reducen.
+			if (reduction > 0 && givesCheck(move)) reduction = 0;
+
+			if (i == 0) {
+				value = -alphaBeta(depth - 1, ply + 1, -beta, -alpha, true);
+			} else {
+				if (reduction > 0) statistics.reductions++;
+
+				value = -alphaBeta(depth - 1 - reduction, ply + 1, -Math.nextUp(alpha), -alpha, true);
+
+				if (reduction > 0 && value > alpha && !timeout) {
+					value = -alphaBeta(depth - 1, ply + 1, -Math.nextUp(alpha), -alpha, true);
+				}
+
+				if (value > alpha && value < beta && !timeout) {
+					statistics.researches++;
+					value = -alphaBeta(depth - 1, ply + 1, -beta, -alpha, true);
+				}
+			}
+
+			state.unmakeMove(move, undo[ply]);
+
+			if (timeout) return 0.;
+
+			if (value > best) {
+				best = value;
+				bestMove = move;
+
+				if (ply == 0 && value > alpha) {
+					rootMove = bestMove;
+					rootScore = value;
+				}
+			}
+
+			if (best > alpha) alpha = best;
+
+			if (alpha >= beta) {
+				statistics.cutoffs++;
+				if (i == 0) statistics.firstMoveCutoffs++;
+
+				ordering.cutoff(move, depth, ply);
+				break;
+			}
+		}
+
+		byte flag = (best <= alphaOrig) ? TranspositionTable.UPPER :
+			(best >= beta) ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+
+		table.store(key, depth, flag, best, bestMove);
+
+		return best;
+	}
+
+	/**
+	 * Movimiento nulo: se pasa el turno y se busca con la profundidad
+	 * reducida según ABSearch.NULL_MOVE_REDUCTION y ventana nula en beta. Si
+	 * aun así el rival no llega a beta, el nodo se da por cortado.
+	 * 
+	 * En este juego pasar no es legal y quedarse sin movimientos es perder,
+	 * algo frecuente porque los movimientos sin captura deben acercarse al
+	 * rey enemigo; así que solo se prueba si el jugador tiene alguna ficha
+	 * que no sea peón ni rey, al menos NULL_MOVE_MOBILITY movimientos, su rey
+	 * no está amenazado, la evaluación estática supera beta en
+	 * NULL_MOVE_MARGIN y beta no es una victoria o derrota. Todo corte se
+	 * confirma con una búsqueda normal reducida del mismo nodo (verificarlo
+	 * solo a partir de 6 niveles ha dado peores resultados).
+	 * 
+	 * @return Cota inferior del nodo, o menos infinito si no se ha probado
+	 * o no ha cortado.
+	 */
+	private double nullMove(int depth, int ply, double beta) {
+		RadikalChessPlayer player = state.getPlayer();
+		long pieces = state.getPieces(player) & ~state.getPieces(RadikalChessState.PAWN) & 
+				~state.getPieces(RadikalChessState.KING);
+
+		if (Math.abs(beta) >= search.getUtilMax() || pieces == 0 || 
+				state.getMobility(player) < ABSearch.NULL_MOVE_MOBILITY || isAttacked() || 
+				evaluate() < beta + ABSearch.NULL_MOVE_MARGIN) {
+			return Double.NEGATIVE_INFINITY;
+		}
+
+		int reduced = Math.max(0, depth - 1 - ABSearch.NULL_MOVE_REDUCTION[depth]);
+		double utility = state.getUtility();
+
+		statistics.nullMoves++;
+		state.setPlayer(RadikalChessUtil.otherPlayer(player));
+		double value = -alphaBeta(reduced, ply + 1, -beta, -Math.nextAfter(beta, Double.NEGATIVE_INFINITY), false);
+		state.setPlayer(player);
+		state.setUtility(utility);
+
+		if (timeout || value < beta) return Double.NEGATIVE_INFINITY;
+
+		value = alphaBeta(reduced + 1, ply, Math.nextAfter(beta, Double.NEGATIVE_INFINITY), beta, false);
+
+		// La verificación vuelve a entrar en este nodo, que ya se contó.
+		statistics.nodes--;
+
+		if (timeout || value < beta) return Double.NEGATIVE_INFINITY;
+
+		statistics.nullMoveCutoffs++;
+
+		// Una victoria encontrada tras pasar no es fiable como valor exacto.
+		return (value >= search.getUtilMax()) ? beta : value;
+	}
+
+	/**
+	 * @return Si el rival alcanza al rey del jugador que mueve.
+	 */
+	private boolean isAttacked() {
+		RadikalChessPlayer player = state.getPlayer();
+		int king = state.getKingSquare(player);
+
+		return king >= 0 && (state.getReach(RadikalChessUtil.otherPlayer(player)) & (1L << king)) != 0;
+	}
+
+	/**
+	 * Solo mira la ficha movida (no los ataques descubiertos), que es lo
+	 * que cuesta poco.
+	 * 
+	 * @return Si el movimiento recién hecho ataca al rey del jugador que
+	 * mueve ahora.
+	 */
+	private boolean givesCheck(int move) {
+		int to = (move >>> 5) & 31;
+		int king = state.getKingSquare(state.getPlayer());
+
+		return king >= 0 && (state.getPiece(to).getTargets(state, to) & (1L << king)) != 0;
+	}
+
+	/**
+	 * @return Si el movimiento lleva un peón a la fila de promoción.
+	 */
+	private boolean isPromotion(int move) {
+		int to = (move >>> 5) & 31;
+		int row = (state.getPlayer() == RadikalChessPlayer.BLACK) ? RadikalChessState.HEIGHT - 1 : 0;
+
+		return state.getType(move & 31) == RadikalChessState.PAWN && RadikalChessState.rankOf(to) == row;
+	}
+
+	/**
+	 * Búsqueda de quietud: en el horizonte se siguen solo las capturas hasta
+	 * que la posición queda tranquila. El jugador que mueve puede quedarse
+	 * con la evaluación estática (stand pat) y no se prueban las capturas
+	 * que, ni ganando la ficha entera, llegarían a alpha (poda delta). Cada
+	 * nodo del horizonte dispone de search.getQuiescenceNodes() nodos; al
+	 * agotarlos se devuelve la evaluación estática.
+	 * 
+	 * @param ply Distancia a la raíz.
+	 * @return Valor del nodo para el jugador que mueve en él.
+	 */
+	private double quiesce(int ply, double alpha, double beta) {
+		if (ply > maxDepth) maxDepth = ply;
+
+		double standPat = evaluate();
+
+		if (!state.hasBothKings() || standPat >= beta) return standPat;
+		if (quiescenceLeft-- <= 0 || ply >= ABSearch.MAX_PLY - 1) return standPat;
+
+		int[] moves = this.moves[ply];
+		int count = game.getMoves(state, moves);
+		int captures = 0;
+
+		for (int i = 0; i < count; i++) {
+			int move = moves[i];
+
+			if (RadikalChessAction.isCapture(move) && 
+					standPat + deltas[state.getType((move >>> 5) & 31)] > alpha) {
+				moves[captures++] = move;
+			}
+		}
+
+		if (count == 0 || captures == 0) return standPat;
+
+		statistics.nodes++;
+		statistics.quiescenceNodes++;
+
+		if ((statistics.nodes & 1023) == 0 && (depthLimit > 1 || id > 0) && search.isTimeUp()) {
+			timeout = true;
+		}
+
+		if (timeout) return 0.;
+
+		ordering.order(state, moves, captures, RadikalChessAction.NO_MOVE, ply);
+
+		double best = standPat;
+
+		if (best > alpha) alpha = best;
+
+		for (int i = 0; i < captures; i++) {
+			int move = moves[i];
+
+			state.makeMove(move, undo[ply]);
+			double value = -quiesce(ply + 1, -beta, -alpha);
+			state.unmakeMove(move, undo[ply]);
+
+			if (timeout) return 0.;
+
+			if (value > best) best = value;
+			if (best > alpha) alpha = best;
+			if (alpha >= beta) break;
+		}
+
+		return best;
+	}
+
+	/**
+	 * Evaluación del estado para el jugador que mueve, contando las
+	 * evaluaciones calculadas y su tiempo.
+	 */
+	private double evaluate() {
+		if (state.hasUtility()) return game.getUtility(state, state.getPlayer());
+
+		long start = System.nanoTime();
+		double utility = game.getUtility(state, state.getPlayer());
+
+		statistics.evaluationNanos += System.nanoTime() - start;
+		statistics.evaluations++;
+
+		return utility;
+	}
+
+	int getBestMove() {
+		return bestMove;
+	}
+
+	double getBestScore() {
+		return bestScore;
+	}
+
+	SearchStatistics getStatistics() {
+		return statistics;
+	}
+
+	int getMaxDepth() {
+		return maxDepth;
+	}
+}
@@ -0,0 +1,330 @@
+package Model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tablas de finales generadas por análisis retrógrado (TablebaseGenerator)
+ * y consultadas desde ficheros proyectados en memoria.
+ *
+ * Hay una tabla por material (firma), por ejemplo "KQvKP": las fichas de
+ * las blancas, 'v' y las de las negras. Cada posición ocupa un byte en el
+ * índice de index(): 0 si es tablas (o no se resuelve nunca), 255 si la
+ * posición no es válida, y si no la distancia en medios movimientos más
+ * uno. La distancia es impar si gana el jugador que mueve y par si pierde
+ * (0: no tiene movimientos).
+ *
+ * Solo se cubren posiciones con los dos reyes; sin ellos el estado ya es
+ * terminal.
+ *
+ * @author Quique
+ */
+public class Tablebase {
+
+	public static final String DEFAULT_DIRECTORY = "tablebases";
+	public static final String EXTENSION = ".rtb";
+
+	/**
+	 * Resultado de probe cuando la posición no está en las tablas.
+	 */
+	public static final int NOT_FOUND = -1;
+	public static final int DRAW = 0;
+	static final int INVALID = 255;
+
+	/**
+	 * Distancia máxima representable; más allá la posición queda como tablas.
+	 */
+	public static final int MAX_DISTANCE = 253;
+
+	/**
+	 * Máximo de fichas por tabla (el índice cabe en un int).
+	 */
+	public static final int MAX_PIECES = 6;
+
+	private static final String LETTERS = "KQRBP";
+	private static final RadikalChessPlayer[] PLAYERS = {RadikalChessPlayer.WHITE, RadikalChessPlayer.BLACK};
+
+	private final int[] signatures;
+	private final ByteBuffer[] tables;
+	private final int maxPieces;
+
+	private Tablebase(int[] signatures, ByteBuffer[] tables, int maxPieces) {
+		this.signatures = signatures;
+		this.tables = tables;
+		this.maxPieces = maxPieces;
+	}
+
+	/**
+	 * Proyecta en memoria las tablas del directorio.
+	 *
+	 * @param directory Directorio con los ficheros .rtb.
+	 * @return Las tablas, null si no hay ninguna válida.
+	 */
+	public static Tablebase open(String directory) {
+		File[] files = new File(directory).listFiles();
+		Map<Integer, ByteBuffer> found = new TreeMap<>();
+		int maxPieces = 0;
+
+		if (files == null) return null;
+
+		for (File file : files) {
+			String name = file.getName();
+
+			if (!name.endsWith(EXTENSION)) continue;
+
+			int signature = parse(name.substring(0, name.length() - EXTENSION.length()));
+
+			if (signature < 0 || file.length() != size(signature)) continue;
+
+			try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+				found.put(signature, in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length()));
+				maxPieces = Math.max(maxPieces, pieces(signature));
+			} catch (IOException e) {
+				System.out.println("Couldn't load " + name + ".");
+			}
+		}
+
+		if (found.isEmpty()) return null;
+
+		int[] signatures = new int[found.size()];
+		ByteBuffer[] tables = new ByteBuffer[found.size()];
+		int i = 0;
+
+		for (Map.Entry<Integer, ByteBuffer> entry : found.entrySet()) {
+			signatures[i] = entry.getKey();
+			tables[i++] = entry.getValue();
+		}
+
+		return new Tablebase(signatures, tables, maxPieces);
+	}
+
+	/**
+	 * @return Número de fichas de la mayor tabla cargada.
+	 */
+	public int getMaxPieces() {
+		return maxPieces;
+	}
+
+	/**
+	 * @return Número de tablas cargadas.
+	 */
+	public int size() {
+		return tables.length;
+	}
+
+	/**
+	 * @return Valor de la posición (véase la clase) o NOT_FOUND.
+	 */
+	public int probe(RadikalChessState state) {
+		if (Long.bitCount(state.getOccupied()) > maxPieces || !state.hasBothKings()) return NOT_FOUND;
+
+		int i = binarySearch(signature(state));
+
+		if (i < 0) return NOT_FOUND;
+
+		int value = tables[i].get(index(state)) & 0xFF;
+
+		return (value == INVALID) ? NOT_FOUND : value;
+	}
+
+	private int binarySearch(int signature) {
+		int low = 0, high = signatures.length - 1;
+
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+
+			if (signatures[mid] < signature) {
+				low = mid + 1;
+			} else if (signatures[mid] > signature) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @return Si el jugador que mueve gana (valor distinto de tablas).
+	 */
+	public static boolean isWin(int value) {
+		return value != DRAW && getDistance(value) % 2 == 1;
+	}
+
+	/**
+	 * @return Medios movimientos hasta el final de la partida.
+	 */
+	public static int getDistance(int value) {
+		return value - 1;
+	}
+
+	/**
+	 * Puntuación para la búsqueda: las victorias valen win menos la
+	 * distancia (mejor cuanto antes), las derrotas lo contrario.
+	 *
+	 * @param value Valor de probe (no NOT_FOUND).
+	 * @param win Puntuación de una victoria inmediata.
+	 */
+	public static double score(int value, double win) {
+		if (value == DRAW) return 0.;
+
+		return isWin(value) ? win - getDistance(value) : -(win - getDistance(value));
+	}
+
+	/**
+	 * Elige el movimiento perfecto según las tablas: capturar el rey si se
+	 * puede, si no la victoria más corta, las tablas o la derrota más larga.
+	 *
+	 * @return Movimiento codificado, NO_MOVE si la posición no está cubierta.
+	 */
+	public int bestMove(RadikalChessGame game, RadikalChessState state) {
+		if (probe(state) == NOT_FOUND) return RadikalChessAction.NO_MOVE;
+
+		RadikalChessState copy = state.clone();
+		RadikalChessUndo undo = new RadikalChessUndo();
+		int[] moves = new int[RadikalChessGame.MAX_MOVES];
+		int count = game.getMoves(copy, moves);
+		int best = RadikalChessAction.NO_MOVE;
+		double bestScore = Double.NEGATIVE_INFINITY;
+
+		for (int i = 0; i < count; i++) {
+			copy.makeMove(moves[i], undo);
+
+			boolean kingCaptured = !copy.hasBothKings();
+			int value = kingCaptured ? NOT_FOUND : probe(copy);
+
+			copy.unmakeMove(moves[i], undo);
+
+			if (kingCaptured) return moves[i];
+			if (value == NOT_FOUND) return RadikalChessAction.NO_MOVE;
+
+			double score = -score(value, MAX_DISTANCE + 1);
+
+			if (score > bestScore) {
+				bestScore = score;
+				best = moves[i];
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Firma del material, sin contar los reyes: 4 bits por cada tipo de
+	 * ficha y jugador, (jugador * 4 + tipo - 1).
+	 */
+	static int signature(RadikalChessState state) {
+		int signature = 0;
+
+		for (int owner = 0; owner < 2; owner++) {
+			for (int type = RadikalChessState.QUEEN; type < RadikalChessState.TYPES; type++) {
+				int count = Long.bitCount(state.getPieces(type, PLAYERS[owner]));
+				signature |= count << (4 * (owner * 4 + type - 1));
+			}
+		}
+
+		return signature;
+	}
+
+	/**
+	 * Índice de la posición en la tabla de su firma: las casillas de las
+	 * fichas en orden (jugador, tipo, casilla creciente) en base SQUARES y,
+	 * al final, el turno.
+	 */
+	static int index(RadikalChessState state) {
+		int index = 0;
+
+		for (int owner = 0; owner < 2; owner++) {
+			for (int type = 0; type < RadikalChessState.TYPES; type++) {
+				long bits = state.getPieces(type, PLAYERS[owner]);
+
+				while (bits != 0) {
+					index = index * RadikalChessState.SQUARES + Long.numberOfTrailingZeros(bits);
+					bits &= bits - 1;
+				}
+			}
+		}
+
+		return index * 2 + state.getPlayer().ordinal();
+	}
+
+	/**
+	 * @return Número de fichas de la firma, reyes incluidos.
+	 */
+	static int pieces(int signature) {
+		int pieces = 2;
+
+		for (int kind = 0; kind < 8; kind++) {
+			pieces += (signature >>> (4 * kind)) & 15;
+		}
+
+		return pieces;
+	}
+
+	/**
+	 * @return Tamaño de la tabla de la firma, en bytes.
+	 */
+	static long size(int signature) {
+		long size = 2;
+
+		for (int i = 0; i < pieces(signature); i++) {
+			size *= RadikalChessState.SQUARES;
+		}
+
+		return size;
+	}
+
+	/**
+	 * @return Nombre de la firma, por ejemplo "KQvKP".
+	 */
+	static String name(int signature) {
+		StringBuilder name = new StringBuilder();
+
+		for (int owner = 0; owner < 2; owner++) {
+			if (owner > 0) name.append('v');
+
+			name.append('K');
+
+			for (int type = RadikalChessState.QUEEN; type < RadikalChessState.TYPES; type++) {
+				int count = (signature >>> (4 * (owner * 4 + type - 1))) & 15;
+
+				for (int i = 0; i < count; i++) {
+					name.append(LETTERS.charAt(type));
+				}
+			}
+		}
+
+		return name.toString();
+	}
+
+	/**
+	 * @return Firma del nombre dado, -1 si no es un nombre válido.
+	 */
+	static int parse(String name) {
+		String[] sides = name.split("v");
+
+		if (sides.length != 2) return -1;
+
+		int signature = 0;
+
+		for (int owner = 0; owner < 2; owner++) {
+			if (!sides[owner].startsWith("K")) return -1;
+
+			for (int i = 1; i < sides[owner].length(); i++) {
+				int type = LETTERS.indexOf(sides[owner].charAt(i));
+
+				if (type <= RadikalChessState.KING) return -1;
+
+				signature += 1 << (4 * (owner * 4 + type - 1));
+			}
+		}
+
+		return (pieces(signature) <= MAX_PIECES && name(signature).equals(name)) ? signature : -1;
+	}
+}
@@ -0,0 +1,275 @@
+package Model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generador de las tablas de finales de Tablebase mediante análisis
+ * retrógrado, con las reglas del juego tal cual (los movimientos salen de
+ * RadikalChessGame.getMoves y se aplican con makeMove).
+ *
+ * Las tablas se resuelven por niveles: en la pasada n una posición gana
+ * en n si algún sucesor pierde en n - 1, y pierde en n si todos sus
+ * sucesores ganan en menos de n. Una posición sin movimientos pierde en 0
+ * y capturar el rey gana en 1. Lo que no se resuelve es tablas.
+ *
+ * Los sucesores con otro material (capturas y promociones) están en tablas
+ * ya generadas: se generan de menos a más fichas y, con las mismas
+ * fichas, de menos a más peones.
+ *
+ * Con 4 fichas son 45 tablas y unos 24 MB; cada ficha más multiplica el
+ * tamaño de cada tabla por 24.
+ *
+ * @author Quique
+ */
+public class TablebaseGenerator {
+
+	private static final int SQUARES = RadikalChessState.SQUARES;
+
+	private final RadikalChessGame game;
+	private final PrintStream log;
+	private final Map<Integer, byte[]> tables = new HashMap<>();
+	private int maxDistance = 0;
+
+	/**
+	 * @param log Salida del progreso, null para no informar.
+	 */
+	public TablebaseGenerator(RadikalChessGame game, PrintStream log) {
+		this.game = game;
+		this.log = log;
+	}
+
+	/**
+	 * Genera y guarda todas las tablas de hasta maxPieces fichas.
+	 *
+	 * @param maxPieces Fichas, reyes incluidos (2..Tablebase.MAX_PIECES).
+	 * @param directory Directorio de destino (se crea si no existe).
+	 */
+	public void generate(int maxPieces, String directory) throws IOException {
+		if (maxPieces < 2 || maxPieces > Tablebase.MAX_PIECES) {
+			throw new IllegalArgumentException("Pieces must be between 2 and " + Tablebase.MAX_PIECES);
+		}
+
+		new File(directory).mkdirs();
+
+		for (int signature : signatures(maxPieces)) {
+			long start = System.currentTimeMillis();
+			byte[] table = solve(signature);
+
+			tables.put(signature, table);
+
+			try (FileOutputStream out = new FileOutputStream(new File(directory, Tablebase.name(signature) + Tablebase.EXTENSION))) {
+				out.write(table);
+			}
+
+			if (log != null) {
+				log.println(Tablebase.name(signature) + ": " + summary(table) + ", " +
+						(System.currentTimeMillis() - start) + " ms");
+			}
+		}
+	}
+
+	/**
+	 * @return Firmas de hasta maxPieces fichas en orden de generación.
+	 */
+	private static List<Integer> signatures(int maxPieces) {
+		List<Integer> signatures = new ArrayList<>();
+
+		addSignatures(signatures, 0, 0, maxPieces - 2);
+
+		Collections.sort(signatures, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				int pieces = Integer.compare(Tablebase.pieces(a), Tablebase.pieces(b));
+
+				return (pieces != 0) ? pieces : Integer.compare(pawns(a), pawns(b));
+			}
+		});
+
+		return signatures;
+	}
+
+	/**
+	 * Añade todas las firmas que resultan de añadir a signature hasta left
+	 * fichas de tipo kind o posteriores.
+	 */
+	private static void addSignatures(List<Integer> signatures, int signature, int kind, int left) {
+		signatures.add(signature);
+
+		if (left == 0) return;
+
+		for (int k = kind; k < 8; k++) {
+			addSignatures(signatures, signature + (1 << (4 * k)), k, left - 1);
+		}
+	}
+
+	private static int pawns(int signature) {
+		int pawn = RadikalChessState.PAWN - 1;
+
+		return ((signature >>> (4 * pawn)) & 15) + ((signature >>> (4 * (4 + pawn))) & 15);
+	}
+
+	/**
+	 * Resuelve la tabla de una firma.
+	 */
+	private byte[] solve(int signature) {
+		int pieces = Tablebase.pieces(signature);
+		int[] types = new int[pieces];
+		int[] owners = new int[pieces];
+		byte[] values = new byte[(int) Tablebase.size(signature)];
+		RadikalChessState state = new RadikalChessState();
+		RadikalChessUndo undo = new RadikalChessUndo();
+		int[] moves = new int[RadikalChessGame.MAX_MOVES];
+		int[] squares = new int[pieces];
+		int p = 0;
+
+		for (int owner = 0; owner < 2; owner++) {
+			types[p] = RadikalChessState.KING;
+			owners[p++] = owner;
+
+			for (int type = RadikalChessState.QUEEN; type < RadikalChessState.TYPES; type++) {
+				int count = (signature >>> (4 * (owner * 4 + type - 1))) & 15;
+
+				for (int i = 0; i < count; i++) {
+					types[p] = type;
+					owners[p++] = owner;
+				}
+			}
+		}
+
+		// Posiciones válidas y sin movimientos.
+		for (int index = 0; index < values.length; index++) {
+			if (!decode(index, types, owners, squares)) {
+				values[index] = (byte) Tablebase.INVALID;
+				continue;
+			}
+
+			setUp(state, index, types, owners, squares);
+
+			if (game.getMoves(state, moves) == 0) values[index] = 1;
+		}
+
+		int depMax = maxDistance;
+		boolean changed = true;
+
+		for (int n = 1; n <= Tablebase.MAX_DISTANCE && (changed || n <= depMax + 1); n++) {
+			changed = false;
+
+			for (int index = 0; index < values.length; index++) {
+				if (values[index] != 0) continue;
+
+				decode(index, types, owners, squares);
+				setUp(state, index, types, owners, squares);
+
+				int count = game.getMoves(state, moves);
+				boolean win = false, loss = true;
+
+				for (int i = 0; i < count && !win; i++) {
+					state.makeMove(moves[i], undo);
+
+					if (!state.hasBothKings()) {
+						win = (n == 1);
+						loss = false;
+					} else {
+						int value = successor(state, signature, values);
+						int distance = value - 1;
+
+						if (value == 0 || value == Tablebase.INVALID) {
+							loss = false;
+						} else if (distance % 2 == 0) {
+							win = (distance == n - 1);
+							loss = false;
+						} else if (distance >= n) {
+							loss = false;
+						}
+					}
+
+					state.unmakeMove(moves[i], undo);
+				}
+
+				if (win || loss) {
+					values[index] = (byte) (n + 1);
+					changed = true;
+					maxDistance = Math.max(maxDistance, n);
+				}
+			}
+		}
+
+		return values;
+	}
+
+	/**
+	 * @return Valor del sucesor, de esta tabla o de una ya generada.
+	 */
+	private int successor(RadikalChessState state, int signature, byte[] values) {
+		int other = Tablebase.signature(state);
+		byte[] table = (other == signature) ? values : tables.get(other);
+
+		return (table == null) ? 0 : table[Tablebase.index(state)] & 0xFF;
+	}
+
+	/**
+	 * Obtiene las casillas de las fichas de un índice.
+	 *
+	 * @return Si la posición es válida: casillas distintas, fichas iguales
+	 * en orden creciente y peones fuera de las filas extremas (donde ya
+	 * habrían promocionado o a las que no pueden volver).
+	 */
+	private static boolean decode(int index, int[] types, int[] owners, int[] squares) {
+		int rest = index >>> 1;
+		long occupied = 0L;
+
+		for (int i = squares.length - 1; i >= 0; i--) {
+			squares[i] = rest % SQUARES;
+			rest /= SQUARES;
+		}
+
+		for (int i = 0; i < squares.length; i++) {
+			int rank = RadikalChessState.rankOf(squares[i]);
+
+			if ((occupied & (1L << squares[i])) != 0) return false;
+			if (i > 0 && types[i] == types[i - 1] && owners[i] == owners[i - 1] && squares[i] < squares[i - 1]) return false;
+			if (types[i] == RadikalChessState.PAWN && (rank == 0 || rank == RadikalChessState.HEIGHT - 1)) return false;
+
+			occupied |= 1L << squares[i];
+		}
+
+		return true;
+	}
+
+	private static void setUp(RadikalChessState state, int index, int[] types, int[] owners, int[] squares) {
+		state.setPlayer((index & 1) == 0 ? RadikalChessPlayer.WHITE : RadikalChessPlayer.BLACK);
+		state.clear();
+
+		for (int i = 0; i < squares.length; i++) {
+			state.putPiece(types[i], owners[i], squares[i]);
+		}
+	}
+
+	/**
+	 * @return Recuento de victorias, derrotas y tablas de la tabla.
+	 */
+	private static String summary(byte[] table) {
+		int wins = 0, losses = 0, draws = 0;
+
+		for (byte b : table) {
+			int value = b & 0xFF;
+
+			if (value == Tablebase.INVALID) continue;
+
+			if (value == Tablebase.DRAW) draws++;
+			else if (Tablebase.isWin(value)) wins++;
+			else losses++;
+		}
+
+		return wins + " wins, " + losses + " losses, " + draws + " draws";
+	}
+}
@@ -0,0 +1,168 @@
+package Model;
+
+/**
+ * Gestión del tiempo de ABSearch. Para cada movimiento fija dos límites:
+ *
+ * 		- Blando: no se empieza otra iteración de la profundización después
+ *		  de superarlo.
+ *		- Duro: la búsqueda se corta aunque esté a mitad de iteración.
+ *
+ * Sin reloj, el límite duro es el tiempo por movimiento y el blando su
+ * mitad. Con reloj (tiempo restante más incremento por jugada) el
+ * presupuesto es el tiempo restante entre MOVES_TO_GO más buena parte del
+ * incremento, y el tiempo por movimiento queda como tope.
+ *
+ * Antes del límite blando también se para si el mejor movimiento se ha
+ * mantenido STABLE_ITERATIONS iteraciones o si la siguiente iteración,
+ * estimada con el crecimiento de las dos últimas, no cabe en el límite
+ * duro. El caso de un solo movimiento legal y el de una victoria forzada
+ * los resuelve la búsqueda por su cuenta.
+ *
+ * @author Quique
+ */
+public class TimeManager {
+
+	/**
+	 * Movimientos que se supone que quedan por jugar; la partida media
+	 * dura unos 20-25 movimientos por jugador.
+	 */
+	public static final int MOVES_TO_GO = 20;
+
+	/**
+	 * Iteraciones con el mismo mejor movimiento para parar antes de tiempo.
+	 */
+	public static final int STABLE_ITERATIONS = 4;
+
+	/**
+	 * Margen que se deja siempre en el reloj, en milisegundos.
+	 */
+	private static final long SAFETY = 50;
+
+	private final long moveTime;
+	private final boolean fixed;
+	private long remaining = -1;
+	private long increment;
+	private long soft;
+	private long hard;
+
+	/**
+	 * @param moveTime Tiempo máximo por movimiento en milisegundos.
+	 */
+	public TimeManager(long moveTime) {
+		this(moveTime, false);
+	}
+
+	private TimeManager(long moveTime, boolean fixed) {
+		this.moveTime = moveTime;
+		this.fixed = fixed;
+		startMove();
+	}
+
+	/**
+	 * @param moveTime Tiempo por movimiento en milisegundos.
+	 * @return Un gestor que siempre gasta el tiempo completo (sin paradas
+	 * anticipadas ni reloj), para búsquedas de calidad fija.
+	 */
+	public static TimeManager fixed(long moveTime) {
+		return new TimeManager(moveTime, true);
+	}
+
+	/**
+	 * Pone en marcha el reloj de la partida.
+	 *
+	 * @param remaining Tiempo restante en milisegundos.
+	 * @param increment Incremento por movimiento en milisegundos.
+	 */
+	public void setClock(long remaining, long increment) {
+		this.remaining = remaining;
+		this.increment = increment;
+	}
+
+	/**
+	 * @return Si hay reloj de partida.
+	 */
+	public boolean hasClock() {
+		return remaining >= 0;
+	}
+
+	/**
+	 * @return Tiempo restante del reloj en milisegundos, -1 si no hay reloj.
+	 */
+	public long getRemaining() {
+		return remaining;
+	}
+
+	/**
+	 * @return Incremento por movimiento en milisegundos.
+	 */
+	public long getIncrement() {
+		return increment;
+	}
+
+	/**
+	 * @return Límite blando del movimiento en curso (o el último), en ms.
+	 */
+	public long getSoftLimit() {
+		return soft;
+	}
+
+	/**
+	 * @return Límite duro del movimiento en curso (o el último), en ms.
+	 */
+	public long getHardLimit() {
+		return hard;
+	}
+
+	/**
+	 * Calcula los límites del movimiento que empieza.
+	 */
+	void startMove() {
+		if (fixed || !hasClock()) {
+			hard = moveTime;
+			soft = fixed ? moveTime : moveTime / 2;
+			return;
+		}
+
+		long budget = remaining / MOVES_TO_GO + increment * 3 / 4;
+
+		hard = Math.min(moveTime, Math.min(budget * 3, remaining / 4 + increment));
+		hard = Math.max(0, Math.min(hard, remaining - SAFETY));
+		soft = Math.min(budget, hard);
+	}
+
+	/**
+	 * Descuenta del reloj el tiempo gastado y suma el incremento.
+	 *
+	 * @param spent Milisegundos gastados en el movimiento.
+	 */
+	void endMove(long spent) {
+		if (hasClock()) {
+			remaining = Math.max(0, remaining - spent) + increment;
+		}
+	}
+
+	/**
+	 * @param elapsed Milisegundos desde el inicio del movimiento.
+	 * @return Si se ha superado el límite duro.
+	 */
+	boolean isHardLimit(long elapsed) {
+		return elapsed > hard;
+	}
+
+	/**
+	 * @param elapsed Milisegundos desde el inicio del movimiento.
+	 * @param stable Iteraciones seguidas con el mismo mejor movimiento.
+	 * @param last Nanosegundos de la última iteración.
+	 * @param previous Nanosegundos de la anterior (0 si no la hay).
+	 * @return Si merece la pena empezar otra iteración.
+	 */
+	boolean nextIteration(long elapsed, int stable, long last, long previous) {
+		if (fixed) return true;
+		if (elapsed >= soft) return false;
+		if (stable >= STABLE_ITERATIONS && elapsed >= soft / 4) return false;
+
+		double growth = (previous > 0) ? Math.max(1.5, Math.min(8., (double) last / previous)) : 4.;
+
+		return elapsed + last * growth / 1e6 <= hard;
+	}
+}
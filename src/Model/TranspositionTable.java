@@ -0,0 +1,162 @@
+package Model;
+
+/**
+ * Tabla de transposiciones de tamaño fijo (en MB). Cada entrada son dos
+ * long: la clave Zobrist y un dato empaquetado con la profundidad, el tipo
+ * de cota, la puntuación y el mejor movimiento; sin objetos por entrada.
+ *
+ * La tabla se comparte entre hilos sin bloqueos: se guarda clave ^ dato, de
+ * modo que una entrada a medio escribir por otro hilo no coincide con la
+ * clave y se trata como ausente.
+ *
+ * Las entradas se agrupan en cubetas de dos. Al guardar se reemplaza la
+ * misma clave si existe y, si no, la entrada de una búsqueda anterior o
+ * la de menor profundidad.
+ *
+ * Formato del dato: movimiento (bits 0-10), profundidad (11-18), cota
+ * (19-20), edad (21-28), entrada válida (29) y puntuación como float (32-63).
+ *
+ * @author Quique
+ */
+public class TranspositionTable {
+
+	public static final byte EXACT = 0;
+	public static final byte LOWER = 1;
+	public static final byte UPPER = 2;
+
+	/**
+	 * Dato devuelto cuando la clave no está en la tabla.
+	 */
+	public static final long MISS = 0L;
+
+	private static final int ENTRY_BYTES = 16;
+	private static final long VALID = 1L << 29;
+
+	private final long[] keys;
+	private final long[] data;
+	private final int mask;
+	private volatile int age = 0;
+
+	/**
+	 * @param megabytes Memoria máxima de la tabla.
+	 */
+	public TranspositionTable(int megabytes) {
+		long entries = Math.max(2L, (long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+		int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+
+		keys = new long[size];
+		data = new long[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * Vacía la tabla.
+	 */
+	public void clear() {
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = 0L;
+			data[i] = 0L;
+		}
+
+		age = 0;
+	}
+
+	/**
+	 * Marca el comienzo de una nueva búsqueda; las entradas de búsquedas
+	 * anteriores pasan a ser las primeras candidatas a reemplazo.
+	 */
+	public void newSearch() {
+		age = (age + 1) & 0xFF;
+	}
+
+	/**
+	 * @param key Clave Zobrist.
+	 * @return Dato de la entrada con esa clave, MISS si no está.
+	 */
+	public long probe(long key) {
+		int i = (int) key & mask & ~1;
+
+		for (int entry = i; entry <= i + 1; entry++) {
+			long value = data[entry];
+
+			if ((keys[entry] ^ value) == key && (value & VALID) != 0) {
+				return value;
+			}
+		}
+
+		return MISS;
+	}
+
+	public static int getDepth(long value) {
+		return (int) (value >>> 11) & 0xFF;
+	}
+
+	public static byte getFlag(long value) {
+		return (byte) ((value >>> 19) & 3);
+	}
+
+	public static double getScore(long value) {
+		return Float.intBitsToFloat((int) (value >>> 32));
+	}
+
+	public static int getMove(long value) {
+		return (int) value & 0x7FF;
+	}
+
+	/**
+	 * Guarda el resultado de un nodo.
+	 *
+	 * @param key Clave Zobrist.
+	 * @param depth Profundidad restante con la que se buscó.
+	 * @param flag EXACT, LOWER o UPPER.
+	 * @param score Puntuación desde el punto de vista del jugador que mueve.
+	 * @param move Mejor movimiento codificado, NO_MOVE si no se conoce.
+	 */
+	public void store(long key, int depth, byte flag, double score, int move) {
+		int i = (int) key & mask & ~1;
+		int entry = -1;
+
+		for (int e = i; e <= i + 1; e++) {
+			if ((keys[e] ^ data[e]) == key && (data[e] & VALID) != 0) {
+				entry = e;
+			}
+		}
+
+		if (entry >= 0) {
+			long old = data[entry];
+
+			if (getAge(old) == age && depth < getDepth(old) && flag != EXACT) {
+				return;
+			}
+
+			if (move == RadikalChessAction.NO_MOVE) {
+				move = getMove(old);
+			}
+		} else {
+			entry = (priority(data[i]) <= priority(data[i + 1])) ? i : i + 1;
+		}
+
+		long value = (move & 0x7FFL) |
+				((long) Math.min(depth, 0xFF) << 11) |
+				((long) flag << 19) |
+				((long) age << 21) |
+				VALID |
+				((long) Float.floatToIntBits((float) score) << 32);
+
+		data[entry] = value;
+		keys[entry] = key ^ value;
+	}
+
+	private static int getAge(long value) {
+		return (int) (value >>> 21) & 0xFF;
+	}
+
+	/**
+	 * @return Valor de la entrada a la hora de conservarla.
+	 */
+	private int priority(long value) {
+		if ((value & VALID) == 0) return -1;
+
+		return (getAge(value) == age) ? getDepth(value) + 256 : getDepth(value);
+	}
+}
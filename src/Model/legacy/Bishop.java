@@ -0,0 +1,17 @@
+package Model.legacy;
+
+import Model.RadikalChessState;
+
+/**
+ * Réplica del Alfil de las versiones anteriores.
+ * 
+ * @author Quique
+ */
+@SuppressWarnings("serial")
+public class Bishop extends ChessPiece {
+
+	@Override
+	public int getType() {
+		return RadikalChessState.BISHOP;
+	}
+}
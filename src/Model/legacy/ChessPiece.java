@@ -0,0 +1,26 @@
+package Model.legacy;
+
+import java.io.Serializable;
+
+import Model.RadikalChessPlayer;
+
+/**
+ * Réplica de la ficha guardada por las versiones anteriores (solo el
+ * dueño), para leer sus ficheros serializados (véase LegacyStateConverter).
+ * 
+ * @author Quique
+ */
+public abstract class ChessPiece implements Serializable {
+
+	private static final long serialVersionUID = -3494692929338584031L;
+	private RadikalChessPlayer owner;
+
+	public RadikalChessPlayer getOwner() {
+		return owner;
+	}
+
+	/**
+	 * @return Tipo de la ficha (constantes de Model.RadikalChessState).
+	 */
+	public abstract int getType();
+}
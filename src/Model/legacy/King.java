@@ -0,0 +1,17 @@
+package Model.legacy;
+
+import Model.RadikalChessState;
+
+/**
+ * Réplica del Rey de las versiones anteriores.
+ * 
+ * @author Quique
+ */
+@SuppressWarnings("serial")
+public class King extends ChessPiece {
+
+	@Override
+	public int getType() {
+		return RadikalChessState.KING;
+	}
+}
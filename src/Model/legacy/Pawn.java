@@ -0,0 +1,17 @@
+package Model.legacy;
+
+import Model.RadikalChessState;
+
+/**
+ * Réplica del Peón de las versiones anteriores.
+ * 
+ * @author Quique
+ */
+@SuppressWarnings("serial")
+public class Pawn extends ChessPiece {
+
+	@Override
+	public int getType() {
+		return RadikalChessState.PAWN;
+	}
+}
@@ -0,0 +1,17 @@
+package Model.legacy;
+
+import Model.RadikalChessState;
+
+/**
+ * Réplica de la Reina de las versiones anteriores.
+ * 
+ * @author Quique
+ */
+@SuppressWarnings("serial")
+public class Queen extends ChessPiece {
+
+	@Override
+	public int getType() {
+		return RadikalChessState.QUEEN;
+	}
+}
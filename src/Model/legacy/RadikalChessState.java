@@ -0,0 +1,31 @@
+package Model.legacy;
+
+import java.io.Serializable;
+
+import Model.RadikalChessPlayer;
+
+/**
+ * Réplica del estado guardado por las versiones anteriores: el tablero
+ * como matriz de fichas, la utilidad y el turno.
+ * 
+ * @author Quique
+ */
+public class RadikalChessState implements Serializable {
+
+	private static final long serialVersionUID = 2748054592927672122L;
+	private ChessPiece[][] board;
+	private double utility;
+	private RadikalChessPlayer player;
+
+	public ChessPiece[][] getBoard() {
+		return board;
+	}
+
+	public double getUtility() {
+		return utility;
+	}
+
+	public RadikalChessPlayer getPlayer() {
+		return player;
+	}
+}
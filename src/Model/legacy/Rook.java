@@ -0,0 +1,17 @@
+package Model.legacy;
+
+import Model.RadikalChessState;
+
+/**
+ * Réplica de la Torre de las versiones anteriores.
+ * 
+ * @author Quique
+ */
+@SuppressWarnings("serial")
+public class Rook extends ChessPiece {
+
+	@Override
+	public int getType() {
+		return RadikalChessState.ROOK;
+	}
+}
@@ -3,14 +3,18 @@ package View;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Scanner;
 
 import Model.ABSearch;
+import Model.Perft;
 import Model.RadikalChessAction;
 import Model.RadikalChessGame;
 import Model.RadikalChessPlayer;
 import Model.RadikalChessState;
 import Model.RadikalChessUtil;
+import Model.SearchStatistics;
 
 /**
  * Clase para la manipulación de la E/S del programa.
@@ -24,6 +28,11 @@ public class RadikalChessConsole {
 	private ArrayList<RadikalChessState> history = new ArrayList<>();
 	private Scanner in = new Scanner(System.in);
 
+	/**
+	 * Tamaño en MB de la tabla de recuentos de perft.
+	 */
+	private static final int PERFT_HASH_SIZE = 64;
+
 	public RadikalChessConsole(RadikalChessGame game, RadikalChessState current) {
 		this.game = game;
 		this.current = current;
@@ -129,6 +138,9 @@ public class RadikalChessConsole {
 				undo();
 				undo();
 				break;
+			case "PERFT":
+				perft(s);
+				break;
 			default:
 				if (!validMove(s)) {
 					System.out.print("Invalid command, use help or ?\n> ");
@@ -196,7 +208,8 @@ public class RadikalChessConsole {
 	 */
 	private void printHelp() {
 		System.out.println("\nCommands: [quit, exit, end], [help, ?], hint <Letter><Number>, hintall, "+
-				"save <filename>, load <filename>, <Letter><Number> <Letter><Number>, history, undo, dundo");		
+				"save <filename>, load <filename>, <Letter><Number> <Letter><Number>, history, undo, dundo, " +
+				"perft <depth> [parallel] [hash]");		
 	}
 	
 	/**
@@ -226,6 +239,60 @@ public class RadikalChessConsole {
 		}
 	}
 	
+	/**
+	 * Analiza el comando perft: perft <profundidad> [parallel] [hash].
+	 * 
+	 * @param s Comando a tratar.
+	 */
+	private void perft(String s) {
+		String[] split = s.split("\\s+");
+
+		int depth;
+
+		try {
+			depth = Integer.parseInt(split[1]);
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			System.out.println("\nUnknown, use perft <depth> [parallel] [hash]");
+			return;
+		}
+
+		boolean parallel = false, hashed = false;
+
+		for (int i = 2; i < split.length; i++) {
+			parallel |= split[i].equals("PARALLEL");
+			hashed |= split[i].equals("HASH");
+		}
+
+		perft(depth, parallel, hashed);
+	}
+
+	/**
+	 * Cuenta el árbol de movimientos desde el estado actual e imprime el
+	 * recuento de cada movimiento de la raíz y los totales.
+	 * 
+	 * @param depth Profundidad.
+	 * @param parallel Repartir la raíz entre hilos.
+	 * @param hashed Guardar los recuentos de los subárboles.
+	 */
+	public void perft(int depth, boolean parallel, boolean hashed) {
+		Perft perft = new Perft(game);
+		perft.setParallel(parallel);
+		perft.setHashSize(hashed ? PERFT_HASH_SIZE : 0);
+		perft.run(current, depth);
+
+		System.out.println("\nPerft " + depth + ":\n");
+
+		for (Map.Entry<RadikalChessAction, Long> entry : perft.getDivide().entrySet()) {
+			System.out.println("\t- " + RadikalChessUtil.actionToNatural(current, entry.getKey()) + ": " + entry.getValue());
+		}
+
+		System.out.println("\n\t- Nodes: " + perft.getNodes());
+		System.out.println("\t- Captures: " + perft.getCaptures());
+		System.out.println("\t- Promotions: " + perft.getPromotions());
+		System.out.println("\t- Time: " + perft.getTime() / 1000000 + " ms");
+		System.out.println("\t- Nodes/s: " + perft.getNodesPerSecond());
+	}
+
 	/**
 	 * Guarda en el fichero indicado el estado.
 	 * 
@@ -341,8 +408,43 @@ public class RadikalChessConsole {
 	 * @param search Búsqueda
 	 */
 	public void printMetrics(ABSearch search) {
+		SearchStatistics statistics = search.getStatistics();
+
 		System.out.println("\t- Expanded nodes: "+ search.getMetrics().get("expandedNodes"));
 		System.out.println("\t- Depth: "+ search.getMetrics().get("maxDepth"));
+
+		if (search.getTimeManager().hasClock()) {
+			System.out.println(String.format(Locale.ROOT, "\t- Clock: %.1f s left", 
+					search.getTimeManager().getRemaining() / 1000.));
+		}
+
+		if (statistics.getIterations() == 0) return;
+
+		System.out.println(String.format(Locale.ROOT, "\t- Time: %d ms, %.0f nodes/s", 
+				statistics.getTime(), statistics.getNodesPerSecond()));
+		System.out.println(String.format(Locale.ROOT, "\t- Iterations: %d, branching factor %.2f", 
+				statistics.getIterations(), statistics.getBranchingFactor()));
+
+		for (int i = 0; i < statistics.getIterations(); i++) {
+			System.out.println(String.format(Locale.ROOT, "\t\tDepth %2d: %10d nodes %10.1f ms", 
+					i + 1, statistics.getIterationNodes(i), statistics.getIterationTime(i)));
+		}
+
+		System.out.println(String.format(Locale.ROOT, "\t- Cutoffs: %d, %.1f%% on the first move", 
+				statistics.getCutoffs(), statistics.getFirstMoveCutoffRate() * 100));
+		System.out.println(String.format(Locale.ROOT, "\t- PVS re-searches: %d, aspiration failures: %d", 
+				statistics.getResearches(), statistics.getAspirationFailures()));
+		System.out.println(String.format(Locale.ROOT, "\t- Null moves: %d, %.1f%% cut; reductions: %d", 
+				statistics.getNullMoves(), statistics.getNullMoveCutoffRate() * 100, statistics.getReductions()));
+		System.out.println(String.format(Locale.ROOT, "\t- Evaluations: %d in %.1f ms", 
+				statistics.getEvaluations(), statistics.getEvaluationTime()));
+		System.out.println(String.format(Locale.ROOT, "\t- Transposition table: %.1f%% hits", 
+				statistics.getTableHitRate() * 100));
+
+		if (statistics.getTablebaseProbes() > 0) {
+			System.out.println(String.format(Locale.ROOT, "\t- Tablebases: %.1f%% hits", 
+					statistics.getTablebaseHitRate() * 100));
+		}
 	}
 
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import Control.RadikalChessCC;
 import Control.RadikalChessExperiment;
 import Control.RadikalChessHC;
 import Control.RadikalChessHH;
+import Control.RadikalChessTuning;
 
 public class RadikalChessConsoleMenu {
 
@@ -14,7 +15,8 @@ public class RadikalChessConsoleMenu {
 	private String[] menuItems = new String[]{"Human vs Human",
 			"Human vs Computer", 
 			"Computer vs Computer",
-			"Launch experiment"};
+			"Launch experiment",
+			"Tune heuristic weights"};
 
 	/**
 	 * Inicio del menú mediante instancia única de clase.
@@ -49,6 +51,10 @@ public class RadikalChessConsoleMenu {
 				RadikalChessCC.start();
 			case 3:
 				RadikalChessExperiment.start();
+				break;
+			case 4:
+				RadikalChessTuning.start();
+				break;
 			default:
 				break;
 		}